@@ -0,0 +1,36 @@
+package com.metastore.benchmarks;
+
+import com.metastore.metacache.model.Metadata;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Records shaped like the ones the metaclient data loader generates, from a fixed seed so
+ * that every run measures the same payloads.
+ */
+final class Fixtures {
+    private static final String[] TYPES = {"Bond", "Stock", "ETF", "Mutual Fund", "Derivative"};
+    private static final String[] ISSUERS = {"JP Morgan", "Goldman Sachs", "Morgan Stanley", "BlackRock", "Vanguard"};
+    private static final String[] RISK_RATINGS = {"Low", "Medium", "High", "Very High"};
+
+    private Fixtures() {
+    }
+
+    static List<Metadata> records(int count) {
+        Random random = new Random(42);
+        List<Metadata> records = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Metadata metadata = new Metadata();
+            metadata.setId(new UUID(random.nextLong(), random.nextLong()));
+            metadata.setName("Test Asset " + i);
+            metadata.setType(TYPES[random.nextInt(TYPES.length)]);
+            metadata.setIssuer(ISSUERS[random.nextInt(ISSUERS.length)]);
+            metadata.setRiskRating(RISK_RATINGS[random.nextInt(RISK_RATINGS.length)]);
+            records.add(metadata);
+        }
+        return records;
+    }
+}
@@ -0,0 +1,60 @@
+package com.metastore.benchmarks;
+
+import com.metastore.metacache.model.Metadata;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building record keys the way {@code MetacacheService} does, by concatenating the prefix
+ * and {@link UUID#toString()}, alone and with the UTF-8 encoding the string template
+ * applies before a key goes on the wire.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KeyBenchmark {
+    private static final String RECORD_KEY_PREFIX = "metadata:record:";
+
+    @Param({"1", "1000", "100000"})
+    public int records;
+
+    private List<UUID> ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ids = Fixtures.records(records).stream().map(Metadata::getId).toList();
+    }
+
+    @Benchmark
+    public void recordKey(Blackhole blackhole) {
+        for (UUID id : ids) {
+            blackhole.consume(RECORD_KEY_PREFIX + id);
+        }
+    }
+
+    @Benchmark
+    public void recordKeyBytes(Blackhole blackhole) {
+        for (UUID id : ids) {
+            blackhole.consume(RedisSerializer.string().serialize(RECORD_KEY_PREFIX + id));
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.metastore.benchmarks;
+
+import com.metastore.metacache.codec.MetadataRecords;
+import com.metastore.metacache.model.Metadata;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The per-record hash mapping behind {@code getMetadata} and batch lookups: {@code Map} to
+ * {@link Metadata} on reads, and back on writes, for a batch of records.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RecordHashBenchmark {
+
+    @Param({"1", "1000", "100000"})
+    public int records;
+
+    private List<Metadata> metadata;
+    private List<Map<String, String>> hashes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        metadata = Fixtures.records(records);
+        hashes = metadata.stream().map(MetadataRecords::toRecord).toList();
+    }
+
+    @Benchmark
+    public void fromRecord(Blackhole blackhole) {
+        for (Map<String, String> hash : hashes) {
+            blackhole.consume(MetadataRecords.fromRecord(hash));
+        }
+    }
+
+    @Benchmark
+    public void toRecord(Blackhole blackhole) {
+        for (Metadata record : metadata) {
+            blackhole.consume(MetadataRecords.toRecord(record));
+        }
+    }
+}
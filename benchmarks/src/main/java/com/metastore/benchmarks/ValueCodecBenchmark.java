@@ -0,0 +1,66 @@
+package com.metastore.benchmarks;
+
+import com.metastore.metacache.codec.BinaryValueCodec;
+import com.metastore.metacache.codec.JsonValueCodec;
+import com.metastore.metacache.codec.ValueCodec;
+import com.metastore.metacache.model.Metadata;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redis value round trip for a {@code List<UUID>}, the shape of cached search results:
+ * the legacy {@code GenericJackson2JsonRedisSerializer} format against the binary codec.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ValueCodecBenchmark {
+
+    @Param({"json", "binary"})
+    public String codec;
+
+    @Param({"1", "1000", "100000"})
+    public int records;
+
+    private ValueCodec valueCodec;
+    private List<UUID> value;
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        valueCodec = codec.equals("json") ? new JsonValueCodec() : new BinaryValueCodec();
+        value = new ArrayList<>(records);
+        for (Metadata metadata : Fixtures.records(records)) {
+            value.add(metadata.getId());
+        }
+        encoded = valueCodec.encode(value);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return valueCodec.encode(value);
+    }
+
+    @Benchmark
+    public Object decode() {
+        return valueCodec.decode(encoded);
+    }
+}
@@ -0,0 +1,342 @@
+package com.metastore.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Self-contained load test: starts a local {@code redis-server}, metaclient on H2 and metacache
+ * in this JVM, loads test data, and drives each scenario's mix of Zipfian ID lookups, searches,
+ * PATCHes and POSTs against metacache at a constant arrival rate. Latency is measured from each
+ * request's scheduled start, so a stalled server shows up in the tail instead of slowing the
+ * generator down (coordinated omission). Hit ratio and metaclient call rate are read from
+ * metacache's {@code metacache.lookups} and {@code http.client.requests} meters.
+ *
+ * <pre>
+ * gradle :loadtest:endToEnd --args="--records=20000 --duration=PT30S --scenario=reads:rate=3000,get=95,search=5"
+ * </pre>
+ */
+public class EndToEndLoadTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final List<String> OPERATIONS = List.of("get", "search", "patch", "post");
+    private static final List<String> KEYWORDS = List.of(
+            "bond", "fund", "stock", "etf", "vanguard", "blackrock", "sachs", "morgan", "low", "high", "derivative", "asset 1");
+    private static final String[] TYPES = {"Bond", "Stock", "ETF", "Mutual Fund", "Derivative"};
+    private static final String[] ISSUERS = {"JP Morgan", "Goldman Sachs", "Morgan Stanley", "BlackRock", "Vanguard"};
+    private static final String[] RISK_RATINGS = {"Low", "Medium", "High", "Very High"};
+
+    public static void main(String[] args) throws Exception {
+        List<Scenario> scenarios = new ArrayList<>();
+        int records = 20000;
+        Duration duration = Duration.ofSeconds(30);
+        Duration warmup = Duration.ofSeconds(10);
+        double zipfExponent = 0.99;
+        int maxInFlight = 10000;
+        List<String> keywords = KEYWORDS;
+        String redis = null;
+        String redisServer = "redis-server";
+        List<String> metaclientArgs = new ArrayList<>();
+        List<String> metacacheArgs = new ArrayList<>();
+        for (String arg : args) {
+            String[] option = arg.split("=", 2);
+            switch (option[0]) {
+                case "--scenario" -> scenarios.add(Scenario.parse(option[1]));
+                case "--records" -> records = Integer.parseInt(option[1]);
+                case "--duration" -> duration = Duration.parse(option[1]);
+                case "--warmup" -> warmup = Duration.parse(option[1]);
+                case "--zipf" -> zipfExponent = Double.parseDouble(option[1]);
+                case "--max-in-flight" -> maxInFlight = Integer.parseInt(option[1]);
+                case "--keywords" -> keywords = List.of(option[1].split(","));
+                case "--redis" -> redis = option[1];
+                case "--redis-server" -> redisServer = option[1];
+                case "--metaclient-arg" -> metaclientArgs.add(option[1]);
+                case "--metacache-arg" -> metacacheArgs.add(option[1]);
+                default -> throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+        if (scenarios.isEmpty()) {
+            scenarios.add(Scenario.parse("read-heavy:rate=2000,get=90,search=8,patch=1,post=1"));
+            scenarios.add(Scenario.parse("search-heavy:rate=1000,get=50,search=50"));
+            scenarios.add(Scenario.parse("write-heavy:rate=1000,get=60,search=10,patch=20,post=10"));
+        }
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        LocalRedis localRedis = redis == null ? LocalRedis.start(redisServer, Duration.ofSeconds(10)) : null;
+        String redisHost = redis == null ? "localhost" : redis.split(":")[0];
+        String redisPort = redis == null ? String.valueOf(localRedis.port()) : redis.split(":")[1];
+
+        List<String> clientArgs = new ArrayList<>(List.of("--server.port=0", "--spring.profiles.active=h2",
+                "--spring.main.banner-mode=off", "--logging.level.root=WARN"));
+        clientArgs.addAll(metaclientArgs);
+        try (localRedis;
+             InProcessApp metaclient = InProcessApp.start("metaclient", System.getProperty("loadtest.metaclient.classpath"),
+                     "com.metastore.metaclient.MetaclientApplication", clientArgs)) {
+            List<String> cacheArgs = new ArrayList<>(List.of("--server.port=0", "--spring.main.banner-mode=off",
+                    "--logging.level.root=WARN", "--spring.redis.host=" + redisHost, "--spring.redis.port=" + redisPort,
+                    "--metacache.metaclient.base-url=" + metaclient.baseUrl()));
+            cacheArgs.addAll(metacacheArgs);
+            try (InProcessApp metacache = InProcessApp.start("metacache", System.getProperty("loadtest.metacache.classpath"),
+                    "com.metastore.metacache.MetacacheApplication", cacheArgs)) {
+                String baseUrl = metacache.baseUrl();
+                loadTestData(client, baseUrl, records);
+                awaitReady(client, baseUrl, Duration.ofMinutes(5));
+                List<String> ids = loadIds(client, metaclient.baseUrl());
+                Collections.shuffle(ids, new Random(42));
+                Workload workload = new Workload(ids, new ZipfianGenerator(ids.size(), zipfExponent),
+                        keywords, new ZipfianGenerator(keywords.size(), zipfExponent));
+                System.out.printf("Loaded %d records, zipf=%.2f, duration=%s, warmup=%s%n",
+                        ids.size(), zipfExponent, duration, warmup);
+
+                System.out.printf("%-14s %-7s %9s %10s %9s %9s %9s %9s %8s %8s %7s %12s%n", "scenario", "op",
+                        "target/s", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "errors", "dropped", "hit %", "metaclient/s");
+                for (Scenario scenario : scenarios) {
+                    run(client, baseUrl, scenario, workload, warmup, maxInFlight);
+                    Counters before = Counters.read(client, baseUrl);
+                    Result result = run(client, baseUrl, scenario, workload, duration, maxInFlight);
+                    Counters after = Counters.read(client, baseUrl);
+                    report(scenario, result, before, after, duration);
+                }
+            }
+        }
+    }
+
+    private static Result run(HttpClient client, String baseUrl, Scenario scenario, Workload workload,
+                              Duration duration, int maxInFlight) {
+        Map<String, Recorder> recorders = new LinkedHashMap<>();
+        OPERATIONS.forEach(operation -> recorders.put(operation, new Recorder(3)));
+        LongAdder errors = new LongAdder();
+        LongAdder dropped = new LongAdder();
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        double intervalNanos = 1_000_000_000.0 / scenario.rate();
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; ; i++) {
+                long scheduled = start + (long) (i * intervalNanos);
+                if (scheduled >= end) {
+                    break;
+                }
+                long wait = scheduled - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                if (!inFlight.tryAcquire()) {
+                    dropped.increment();
+                    continue;
+                }
+                String operation = scenario.nextOperation();
+                HttpRequest request = workload.request(baseUrl, operation);
+                workers.submit(() -> {
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        // 404s are expected for IDs deleted or rejected by the Bloom filter; count only failures.
+                        if (response.statusCode() >= 500) {
+                            errors.increment();
+                        }
+                    } catch (Exception e) {
+                        errors.increment();
+                    } finally {
+                        recorders.get(operation).recordValue(System.nanoTime() - scheduled);
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+        Map<String, Histogram> histograms = new LinkedHashMap<>();
+        recorders.forEach((operation, recorder) -> histograms.put(operation, recorder.getIntervalHistogram()));
+        return new Result(histograms, errors.sum(), dropped.sum());
+    }
+
+    private static void report(Scenario scenario, Result result, Counters before, Counters after, Duration duration) {
+        double seconds = duration.toMillis() / 1000.0;
+        Histogram total = new Histogram(3);
+        result.histograms().values().forEach(total::add);
+        long hits = after.hits() - before.hits();
+        long lookups = hits + after.misses() - before.misses();
+        double hitPercent = lookups > 0 ? 100.0 * hits / lookups : 0;
+        double metaclientRate = (after.metaclientCalls() - before.metaclientCalls()) / seconds;
+        System.out.printf("%-14s %-7s %9d %10.1f %9.2f %9.2f %9.2f %9.2f %8d %8d %7.1f %12.1f%n", scenario.name(), "all",
+                scenario.rate(), total.getTotalCount() / seconds,
+                millis(total.getValueAtPercentile(50)), millis(total.getValueAtPercentile(99)),
+                millis(total.getValueAtPercentile(99.9)), millis(total.getMaxValue()),
+                result.errors(), result.dropped(), hitPercent, metaclientRate);
+        result.histograms().forEach((operation, histogram) -> {
+            if (histogram.getTotalCount() > 0) {
+                System.out.printf("%-14s %-7s %9s %10.1f %9.2f %9.2f %9.2f %9.2f%n", "", operation, "",
+                        histogram.getTotalCount() / seconds,
+                        millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(99)),
+                        millis(histogram.getValueAtPercentile(99.9)), millis(histogram.getMaxValue()));
+            }
+        });
+    }
+
+    private static void loadTestData(HttpClient client, String baseUrl, int records) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/metadata/load/test-data/" + records))
+                .timeout(Duration.ofMinutes(10))
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Unable to load test data: HTTP " + response.statusCode());
+        }
+    }
+
+    private static List<String> loadIds(HttpClient client, String metaclientUrl) throws Exception {
+        List<String> ids = new ArrayList<>();
+        String after = "";
+        while (true) {
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(
+                            URI.create(metaclientUrl + "/metadata/ids?limit=1000&after=" + after)).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Unable to read ids from metaclient: HTTP " + response.statusCode());
+            }
+            JsonNode page = OBJECT_MAPPER.readTree(response.body());
+            if (page.isEmpty()) {
+                return ids;
+            }
+            page.forEach(id -> ids.add(id.asText()));
+            after = ids.get(ids.size() - 1);
+        }
+    }
+
+    private static void awaitReady(HttpClient client, String baseUrl, Duration timeout) throws Exception {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/health/readiness")).build();
+        while (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() != 200) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("metacache did not become ready within " + timeout);
+            }
+            Thread.sleep(200);
+        }
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    /**
+     * Operation weights and target arrival rate, parsed from
+     * {@code name:rate=<req/s>,get=<w>,search=<w>,patch=<w>,post=<w>}.
+     */
+    private record Scenario(String name, int rate, double[] cumulativeWeights) {
+
+        static Scenario parse(String spec) {
+            String[] nameAndOptions = spec.split(":", 2);
+            if (nameAndOptions.length != 2) {
+                throw new IllegalArgumentException("Expected name:rate=...,get=...: " + spec);
+            }
+            int rate = 0;
+            Map<String, Double> weights = new LinkedHashMap<>();
+            for (String option : nameAndOptions[1].split(",")) {
+                String[] keyValue = option.split("=", 2);
+                if (keyValue[0].equals("rate")) {
+                    rate = Integer.parseInt(keyValue[1]);
+                } else if (OPERATIONS.contains(keyValue[0])) {
+                    weights.put(keyValue[0], Double.parseDouble(keyValue[1]));
+                } else {
+                    throw new IllegalArgumentException("Unknown scenario option: " + option);
+                }
+            }
+            double sum = weights.values().stream().mapToDouble(Double::doubleValue).sum();
+            if (rate <= 0 || sum <= 0) {
+                throw new IllegalArgumentException("Scenario needs a positive rate and at least one weight: " + spec);
+            }
+            double[] cumulative = new double[OPERATIONS.size()];
+            double running = 0;
+            for (int i = 0; i < OPERATIONS.size(); i++) {
+                running += weights.getOrDefault(OPERATIONS.get(i), 0.0) / sum;
+                cumulative[i] = running;
+            }
+            return new Scenario(nameAndOptions[0], rate, cumulative);
+        }
+
+        String nextOperation() {
+            double u = ThreadLocalRandom.current().nextDouble();
+            for (int i = 0; i < cumulativeWeights.length; i++) {
+                if (u < cumulativeWeights[i]) {
+                    return OPERATIONS.get(i);
+                }
+            }
+            return OPERATIONS.get(0);
+        }
+    }
+
+    private record Workload(List<String> ids, ZipfianGenerator idRanks, List<String> keywords, ZipfianGenerator keywordRanks) {
+
+        HttpRequest request(String baseUrl, String operation) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            HttpRequest.Builder builder = switch (operation) {
+                case "get" -> HttpRequest.newBuilder(URI.create(baseUrl + "/metadata/" + ids.get(idRanks.next())));
+                case "search" -> HttpRequest.newBuilder(URI.create(baseUrl + "/metadata/search?keyword="
+                        + URLEncoder.encode(keywords.get(keywordRanks.next()), StandardCharsets.UTF_8)));
+                case "patch" -> HttpRequest.newBuilder(URI.create(baseUrl + "/metadata/" + ids.get(idRanks.next())))
+                        .method("PATCH", HttpRequest.BodyPublishers.ofString(
+                                "{\"riskRating\":\"" + RISK_RATINGS[random.nextInt(RISK_RATINGS.length)] + "\"}"));
+                case "post" -> HttpRequest.newBuilder(URI.create(baseUrl + "/metadata"))
+                        .POST(HttpRequest.BodyPublishers.ofString("[{\"name\":\"Load Test Asset " + random.nextInt(1_000_000)
+                                + "\",\"type\":\"" + TYPES[random.nextInt(TYPES.length)]
+                                + "\",\"issuer\":\"" + ISSUERS[random.nextInt(ISSUERS.length)]
+                                + "\",\"riskRating\":\"" + RISK_RATINGS[random.nextInt(RISK_RATINGS.length)] + "\"}]"));
+                default -> throw new IllegalArgumentException("Unknown operation: " + operation);
+            };
+            return builder.header("Content-Type", "application/json")
+                    .timeout(Duration.ofSeconds(30))
+                    .build();
+        }
+    }
+
+    private record Counters(long hits, long misses, long metaclientCalls) {
+
+        static Counters read(HttpClient client, String baseUrl) throws Exception {
+            return new Counters(
+                    count(client, baseUrl, "metacache.lookups?tag=result:hit"),
+                    count(client, baseUrl, "metacache.lookups?tag=result:miss"),
+                    count(client, baseUrl, "http.client.requests"));
+        }
+
+        private static long count(HttpClient client, String baseUrl, String meter) throws Exception {
+            HttpResponse<String> response = client.send(
+                    HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/metrics/" + meter)).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                return 0;
+            }
+            for (JsonNode measurement : OBJECT_MAPPER.readTree(response.body()).path("measurements")) {
+                if (measurement.path("statistic").asText().equals("COUNT")) {
+                    return measurement.path("value").asLong();
+                }
+            }
+            return 0;
+        }
+    }
+
+    private record Result(Map<String, Histogram> histograms, long errors, long dropped) {
+    }
+}
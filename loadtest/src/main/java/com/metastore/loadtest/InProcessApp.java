@@ -0,0 +1,75 @@
+package com.metastore.loadtest;
+
+import java.io.File;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A Spring Boot application started in this JVM from its own runtime classpath. Each app gets
+ * a separate class loader, so metaclient and metacache keep their own {@code application.yml},
+ * auto-configuration and logging while sharing the process with the load generator.
+ */
+class InProcessApp implements AutoCloseable {
+    private final String name;
+    private final URLClassLoader classLoader;
+    private final Object context;
+
+    private InProcessApp(String name, URLClassLoader classLoader, Object context) {
+        this.name = name;
+        this.classLoader = classLoader;
+        this.context = context;
+    }
+
+    static InProcessApp start(String name, String classpath, String mainClass, List<String> args) throws Exception {
+        if (classpath == null || classpath.isBlank()) {
+            throw new IllegalStateException("No classpath for " + name + "; run through gradle :loadtest:endToEnd");
+        }
+        List<URL> urls = new ArrayList<>();
+        for (String entry : classpath.split(File.pathSeparator)) {
+            urls.add(new File(entry).toURI().toURL());
+        }
+        URLClassLoader classLoader = new URLClassLoader(name, urls.toArray(URL[]::new), ClassLoader.getPlatformClassLoader());
+        Thread thread = Thread.currentThread();
+        ClassLoader previous = thread.getContextClassLoader();
+        thread.setContextClassLoader(classLoader);
+        try {
+            // Only one Tomcat per JVM may install its URL stream handler factory, and embedded apps don't need it.
+            classLoader.loadClass("org.apache.catalina.webresources.TomcatURLStreamHandlerFactory")
+                    .getMethod("disable").invoke(null);
+            Class<?> application = classLoader.loadClass(mainClass);
+            Method run = classLoader.loadClass("org.springframework.boot.SpringApplication")
+                    .getMethod("run", Class.class, String[].class);
+            Object context = run.invoke(null, application, args.toArray(String[]::new));
+            return new InProcessApp(name, classLoader, context);
+        } catch (Exception e) {
+            classLoader.close();
+            throw new IllegalStateException("Unable to start " + name, e);
+        } finally {
+            thread.setContextClassLoader(previous);
+        }
+    }
+
+    String baseUrl() throws Exception {
+        Object environment = contextMethod("getEnvironment").invoke(context);
+        Method getProperty = classLoader.loadClass("org.springframework.core.env.PropertyResolver")
+                .getMethod("getProperty", String.class);
+        return "http://localhost:" + getProperty.invoke(environment, "local.server.port");
+    }
+
+    @Override
+    public void close() {
+        try {
+            contextMethod("close").invoke(context);
+            classLoader.close();
+        } catch (Exception e) {
+            System.err.printf("Error stopping %s: %s%n", name, e.getMessage());
+        }
+    }
+
+    private Method contextMethod(String methodName) throws Exception {
+        return classLoader.loadClass("org.springframework.context.ConfigurableApplicationContext").getMethod(methodName);
+    }
+}
@@ -0,0 +1,65 @@
+package com.metastore.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/**
+ * A throwaway {@code redis-server} on a free port, without persistence.
+ */
+class LocalRedis implements AutoCloseable {
+    private final Process process;
+    private final int port;
+
+    private LocalRedis(Process process, int port) {
+        this.process = process;
+        this.port = port;
+    }
+
+    static LocalRedis start(String executable, Duration timeout) throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        Process process = new ProcessBuilder(executable, "--port", String.valueOf(port), "--save", "", "--appendonly", "no")
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        LocalRedis redis = new LocalRedis(process, port);
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (!redis.ping()) {
+            if (!process.isAlive() || System.nanoTime() > deadline) {
+                redis.close();
+                throw new IllegalStateException("redis-server did not start on port " + port);
+            }
+            Thread.sleep(50);
+        }
+        return redis;
+    }
+
+    int port() {
+        return port;
+    }
+
+    private boolean ping() {
+        try (Socket socket = new Socket("localhost", port)) {
+            OutputStream out = socket.getOutputStream();
+            out.write("PING\r\n".getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            InputStream in = socket.getInputStream();
+            byte[] reply = in.readNBytes(5);
+            return "+PONG".equals(new String(reply, StandardCharsets.US_ASCII));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void close() {
+        process.destroy();
+    }
+}
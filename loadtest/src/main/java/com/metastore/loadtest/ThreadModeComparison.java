@@ -0,0 +1,153 @@
+package com.metastore.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop load test comparing a metacache running on platform threads with one running
+ * on virtual threads ({@code VIRTUAL_THREADS_ENABLED=true}). Both targets should share the
+ * same Redis and metaclient and run with {@code NEAR_CACHE_ENABLED=false}, so every request
+ * blocks on Redis or metaclient the way it does under production miss rates.
+ *
+ * <pre>
+ * gradle :loadtest:run --args="--target=platform=http://localhost:8080 --target=virtual=http://localhost:8090 --concurrency=2000"
+ * </pre>
+ */
+public class ThreadModeComparison {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final List<String> KEYWORDS = List.of("bond", "fund", "equity", "vanguard", "sachs", "high");
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> targets = new LinkedHashMap<>();
+        int concurrency = 1000;
+        Duration duration = Duration.ofSeconds(30);
+        Duration warmup = Duration.ofSeconds(5);
+        int ids = 5000;
+        double searchRatio = 0.1;
+        for (String arg : args) {
+            String[] option = arg.split("=", 2);
+            switch (option[0]) {
+                case "--target" -> {
+                    String[] target = option[1].split("=", 2);
+                    targets.put(target[0], target[1]);
+                }
+                case "--concurrency" -> concurrency = Integer.parseInt(option[1]);
+                case "--duration" -> duration = Duration.parse(option[1]);
+                case "--warmup" -> warmup = Duration.parse(option[1]);
+                case "--ids" -> ids = Integer.parseInt(option[1]);
+                case "--search-ratio" -> searchRatio = Double.parseDouble(option[1]);
+                default -> throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+        if (targets.isEmpty()) {
+            targets.put("platform", "http://localhost:8080");
+            targets.put("virtual", "http://localhost:8090");
+        }
+
+        HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        List<String> idSample = sampleIds(client, targets.values().iterator().next(), ids);
+        System.out.printf("Loaded %d ids, concurrency=%d, duration=%s%n", idSample.size(), concurrency, duration);
+
+        System.out.printf("%-10s %12s %10s %10s %10s %10s %8s%n", "mode", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "errors");
+        for (Map.Entry<String, String> target : targets.entrySet()) {
+            run(client, target.getValue(), idSample, concurrency, warmup, searchRatio);
+            Result result = run(client, target.getValue(), idSample, concurrency, duration, searchRatio);
+            Histogram histogram = result.histogram();
+            System.out.printf("%-10s %12.1f %10.2f %10.2f %10.2f %10.2f %8d%n", target.getKey(),
+                    histogram.getTotalCount() / (duration.toMillis() / 1000.0),
+                    millis(histogram.getValueAtPercentile(50)),
+                    millis(histogram.getValueAtPercentile(99)),
+                    millis(histogram.getValueAtPercentile(99.9)),
+                    millis(histogram.getMaxValue()),
+                    result.errors());
+        }
+    }
+
+    private static Result run(HttpClient client, String baseUrl, List<String> ids, int concurrency,
+                              Duration duration, double searchRatio) throws InterruptedException {
+        Recorder recorder = new Recorder(3);
+        LongAdder errors = new LongAdder();
+        long deadline = System.nanoTime() + duration.toNanos();
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                workers.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < deadline) {
+                        String path = random.nextDouble() < searchRatio
+                                ? "/metadata/search?keyword=" + KEYWORDS.get(random.nextInt(KEYWORDS.size()))
+                                : "/metadata/" + ids.get(random.nextInt(ids.size()));
+                        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                                .timeout(Duration.ofSeconds(30))
+                                .build();
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() >= 400) {
+                                errors.increment();
+                            }
+                        } catch (Exception e) {
+                            errors.increment();
+                        }
+                        recorder.recordValue(System.nanoTime() - start);
+                    }
+                });
+            }
+            workers.shutdown();
+            workers.awaitTermination(duration.toMillis() + 60_000, TimeUnit.MILLISECONDS);
+        }
+        return new Result(recorder.getIntervalHistogram(), errors.sum());
+    }
+
+    private static List<String> sampleIds(HttpClient client, String baseUrl, int count) throws Exception {
+        List<String> ids = new ArrayList<>(count);
+        String cursor = null;
+        while (ids.size() < count) {
+            String url = baseUrl + "/metadata/all/page?limit=" + Math.min(1000, count - ids.size())
+                    + (cursor != null ? "&cursor=" + cursor : "");
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(url)).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Unable to sample ids from " + url + ": HTTP " + response.statusCode());
+            }
+            JsonNode page = OBJECT_MAPPER.readTree(response.body()).path("data");
+            page.path("items").forEach(item -> ids.add(item.path("id").asText()));
+            JsonNode next = page.path("nextCursor");
+            if (next.isNull() || next.isMissingNode()) {
+                break;
+            }
+            cursor = next.asText();
+        }
+        if (ids.isEmpty()) {
+            throw new IllegalStateException("No metadata found at " + baseUrl + "; load test data first");
+        }
+        return ids;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private record Result(Histogram histogram, long errors) {
+    }
+}
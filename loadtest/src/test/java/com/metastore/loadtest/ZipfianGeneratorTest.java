@@ -0,0 +1,66 @@
+package com.metastore.loadtest;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ZipfianGeneratorTest {
+    private static final int DRAWS = 200_000;
+
+    @Test
+    void drawsRanksWithinRange() {
+        ZipfianGenerator generator = new ZipfianGenerator(10, 1.0);
+        for (int i = 0; i < DRAWS; i++) {
+            int rank = generator.next();
+            assertTrue(rank >= 0 && rank < 10, "rank out of range: " + rank);
+        }
+    }
+
+    @Test
+    void followsTheZipfDistribution() {
+        int n = 100;
+        int[] counts = draw(new ZipfianGenerator(n, 1.0), n);
+
+        double harmonic = 0;
+        for (int rank = 1; rank <= n; rank++) {
+            harmonic += 1.0 / rank;
+        }
+        for (int rank : new int[]{0, 1, 9}) {
+            double expected = 1.0 / (rank + 1) / harmonic;
+            assertEquals(expected, counts[rank] / (double) DRAWS, 0.01, "share of rank " + rank);
+        }
+        assertTrue(counts[0] > counts[1] && counts[1] > counts[9] && counts[9] > counts[99]);
+    }
+
+    @Test
+    void isUniformWithExponentZero() {
+        int n = 20;
+        int[] counts = draw(new ZipfianGenerator(n, 0.0), n);
+        for (int rank = 0; rank < n; rank++) {
+            assertEquals(1.0 / n, counts[rank] / (double) DRAWS, 0.01, "share of rank " + rank);
+        }
+    }
+
+    @Test
+    void alwaysDrawsTheOnlyRank() {
+        ZipfianGenerator generator = new ZipfianGenerator(1, 1.0);
+        for (int i = 0; i < 1_000; i++) {
+            assertEquals(0, generator.next());
+        }
+    }
+
+    @Test
+    void rejectsEmptyRanges() {
+        assertThrows(IllegalArgumentException.class, () -> new ZipfianGenerator(0, 1.0));
+    }
+
+    private static int[] draw(ZipfianGenerator generator, int n) {
+        int[] counts = new int[n];
+        for (int i = 0; i < DRAWS; i++) {
+            counts[generator.next()]++;
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,41 @@
+package com.metastore.metacache.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Periodically repairs reference-count drift, e.g. from writes that bypassed metacache
+ * or from concurrent updates of the same record.
+ */
+@Component
+public class DictionaryReconciler {
+    private static final Logger logger = LoggerFactory.getLogger(DictionaryReconciler.class);
+
+    private final List<ReferenceCountedDictionary> dictionaries;
+    private final InvalidationBus invalidationBus;
+
+    public DictionaryReconciler(List<ReferenceCountedDictionary> dictionaries, InvalidationBus invalidationBus) {
+        this.dictionaries = dictionaries;
+        this.invalidationBus = invalidationBus;
+    }
+
+    @Scheduled(fixedDelayString = "${metacache.dictionary.reconcile-interval:PT10M}",
+            initialDelayString = "${metacache.dictionary.reconcile-interval:PT10M}")
+    public void reconcileAll() {
+        dictionaries.forEach(this::reconcile);
+    }
+
+    public void reconcile(ReferenceCountedDictionary dictionary) {
+        try {
+            if (dictionary.reconcile()) {
+                invalidationBus.invalidateKey(dictionary.getNearCacheKey());
+            }
+        } catch (Exception e) {
+            logger.error("Error reconciling {} dictionary: {}", dictionary.getName(), e.getMessage());
+        }
+    }
+}
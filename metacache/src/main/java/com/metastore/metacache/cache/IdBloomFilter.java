@@ -0,0 +1,231 @@
+package com.metastore.metacache.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory Bloom filter of every metadata ID, so that lookups of IDs that cannot exist
+ * are answered without Redis or metaclient. It is loaded from metaclient's ID pages at
+ * startup, periodically (which also sheds deleted IDs) and on full invalidations, which
+ * only bulk loads and resyncs broadcast. Created IDs are added here or, on other
+ * replicas, from their per-key invalidations. Until a load completes every ID is
+ * reported as possibly present.
+ */
+@Component
+public class IdBloomFilter implements InvalidationListener {
+    private static final Logger logger = LoggerFactory.getLogger(IdBloomFilter.class);
+    private static final String ID_KEY_PREFIX = "metadata:";
+    private static final int UUID_LENGTH = 36;
+
+    private final RestTemplate restTemplate;
+    private final ExecutorService loader = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "id-bloom-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean rebuildQueued = new AtomicBoolean();
+    private final Counter rejected;
+    private final Object buildLock = new Object();
+    private volatile Bits bits;
+    private volatile Bits building;
+
+    @Value("${metacache.bloom.enabled:true}")
+    private boolean enabled;
+
+    @Value("${metacache.bloom.expected-ids:1000000}")
+    private long expectedIds;
+
+    @Value("${metacache.bloom.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    @Value("${metacache.bloom.load-page-size:1000}")
+    private int loadPageSize;
+
+    @Value("${metacache.metaclient.base-url:http://metaclient:8081}")
+    private String metaclientBaseUrl;
+
+    public IdBloomFilter(RestTemplate restTemplate, MeterRegistry meterRegistry) {
+        this.restTemplate = restTemplate;
+        this.rejected = Counter.builder("metacache.bloom.rejected")
+                .description("Lookups answered as not found by the ID Bloom filter")
+                .register(meterRegistry);
+        Gauge.builder("metacache.bloom.ids", this, filter -> filter.bits != null ? filter.bits.insertions.sum() : 0)
+                .register(meterRegistry);
+        Gauge.builder("metacache.bloom.false.positive.rate", this,
+                        filter -> filter.bits != null ? filter.bits.falsePositiveRate() : 1)
+                .description("Expected false-positive rate at the filter's current fill")
+                .register(meterRegistry);
+    }
+
+    /**
+     * False only when the ID certainly does not exist.
+     */
+    public boolean mightContain(UUID id) {
+        Bits current = bits;
+        if (!enabled || current == null || current.mightContain(id)) {
+            return true;
+        }
+        rejected.increment();
+        return false;
+    }
+
+    public void add(UUID id) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (buildLock) {
+            if (bits != null) {
+                bits.add(id);
+            }
+            if (building != null) {
+                building.add(id);
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${metacache.bloom.rebuild-interval:PT6H}",
+            initialDelayString = "${metacache.bloom.rebuild-interval:PT6H}")
+    public void rebuild() {
+        if (enabled && rebuildQueued.compareAndSet(false, true)) {
+            loader.submit(this::load);
+        }
+    }
+
+    /**
+     * An invalidated per-ID key may belong to a record created on another replica.
+     */
+    @Override
+    public void onKeyInvalidated(String key) {
+        if (!enabled || !key.startsWith(ID_KEY_PREFIX) || key.length() != ID_KEY_PREFIX.length() + UUID_LENGTH) {
+            return;
+        }
+        try {
+            add(UUID.fromString(key.substring(ID_KEY_PREFIX.length())));
+        } catch (IllegalArgumentException e) {
+            // Not a per-ID key.
+        }
+    }
+
+    @Override
+    public void onAllInvalidated() {
+        rebuild();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        loader.shutdownNow();
+    }
+
+    private void load() {
+        rebuildQueued.set(false);
+        long start = System.nanoTime();
+        try {
+            Long count = restTemplate.getForObject(metaclientBaseUrl + "/metadata/count", Long.class);
+            // Room to double before the false-positive rate degrades.
+            Bits loaded = new Bits(Math.max(expectedIds, 2 * (count != null ? count : 0)), falsePositiveRate);
+            synchronized (buildLock) {
+                building = loaded;
+            }
+            UUID cursor = null;
+            List<UUID> page;
+            do {
+                page = restTemplate.exchange(metaclientBaseUrl + "/metadata/ids?limit={limit}&after={after}",
+                        HttpMethod.GET, null, new ParameterizedTypeReference<List<UUID>>() {
+                        }, loadPageSize, cursor != null ? cursor : "").getBody();
+                if (page == null) {
+                    throw new IllegalStateException("Empty ID page from metaclient");
+                }
+                page.forEach(loaded::add);
+                cursor = page.isEmpty() ? null : page.get(page.size() - 1);
+            } while (page.size() == loadPageSize);
+            synchronized (buildLock) {
+                bits = loaded;
+                building = null;
+            }
+            logger.info("Loaded ID Bloom filter with {} IDs ({} bits, {} hashes) in {} ms", loaded.insertions.sum(),
+                    loaded.size, loaded.hashes, (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            synchronized (buildLock) {
+                building = null;
+            }
+            logger.error("Error loading ID Bloom filter: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Bit array probed with double hashing of the UUID's two halves; random UUIDs are
+     * already uniformly distributed, so the halves only need mixing, not full hashing.
+     */
+    static final class Bits {
+        private final AtomicLongArray words;
+        private final long size;
+        private final int hashes;
+        final LongAdder insertions = new LongAdder();
+
+        Bits(long expected, double falsePositiveRate) {
+            long bitCount = (long) Math.ceil(-expected * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            this.words = new AtomicLongArray((int) Math.max(1, (bitCount + 63) / 64));
+            this.size = words.length() * 64L;
+            this.hashes = Math.max(1, (int) Math.round((double) size / expected * Math.log(2)));
+        }
+
+        void add(UUID id) {
+            long h1 = mix(id.getMostSignificantBits());
+            long h2 = mix(id.getLeastSignificantBits()) | 1;
+            boolean changed = false;
+            for (int i = 0; i < hashes; i++) {
+                long bit = Math.floorMod(h1 + i * h2, size);
+                long mask = 1L << bit;
+                int word = (int) (bit >>> 6);
+                long previous = words.getAndAccumulate(word, mask, (value, m) -> value | m);
+                changed |= (previous & mask) == 0;
+            }
+            if (changed) {
+                insertions.increment();
+            }
+        }
+
+        boolean mightContain(UUID id) {
+            long h1 = mix(id.getMostSignificantBits());
+            long h2 = mix(id.getLeastSignificantBits()) | 1;
+            for (int i = 0; i < hashes; i++) {
+                long bit = Math.floorMod(h1 + i * h2, size);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        double falsePositiveRate() {
+            return Math.pow(1 - Math.exp(-hashes * insertions.doubleValue() / size), hashes);
+        }
+
+        private static long mix(long value) {
+            value = (value ^ (value >>> 33)) * 0xff51afd7ed558ccdL;
+            value = (value ^ (value >>> 33)) * 0xc4ceb9fe1a85ec53L;
+            return value ^ (value >>> 33);
+        }
+    }
+}
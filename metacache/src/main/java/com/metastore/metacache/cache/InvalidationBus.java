@@ -0,0 +1,108 @@
+package com.metastore.metacache.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Keeps the near caches of all metacache replicas coherent by broadcasting
+ * invalidations over Redis pub/sub. Messages are {@code <node>|<kind>|<argument>}.
+ */
+@Component
+public class InvalidationBus implements MessageListener {
+    private static final Logger logger = LoggerFactory.getLogger(InvalidationBus.class);
+    public static final String CHANNEL = "metadata:invalidations";
+
+    private static final String KIND_KEY = "KEY";
+    private static final String KIND_PREFIX = "PREFIX";
+    private static final String KIND_ALL = "ALL";
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final StringRedisTemplate stringRedisTemplate;
+    private final NearCache nearCache;
+    private final List<InvalidationListener> listeners;
+
+    public InvalidationBus(StringRedisTemplate stringRedisTemplate, NearCache nearCache,
+                           List<InvalidationListener> listeners) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.nearCache = nearCache;
+        this.listeners = listeners;
+    }
+
+    public void invalidateKey(String key) {
+        nearCache.invalidate(key);
+        publish(KIND_KEY, key);
+    }
+
+    /**
+     * Invalidates many keys, publishing their messages in one pipeline.
+     */
+    public void invalidateKeys(Collection<String> keys) {
+        keys.forEach(nearCache::invalidate);
+        try {
+            byte[] channel = CHANNEL.getBytes(StandardCharsets.UTF_8);
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (String key : keys) {
+                    connection.publish(channel, message(KIND_KEY, key).getBytes(StandardCharsets.UTF_8));
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            logger.error("Error publishing cache invalidations: {}", e.getMessage());
+        }
+    }
+
+    public void invalidatePrefix(String prefix) {
+        nearCache.invalidatePrefix(prefix);
+        publish(KIND_PREFIX, prefix);
+    }
+
+    public void invalidateAll() {
+        nearCache.invalidateAll();
+        publish(KIND_ALL, "");
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 3);
+        if (parts.length < 3 || nodeId.equals(parts[0])) {
+            return;
+        }
+        switch (parts[1]) {
+            case KIND_KEY -> {
+                nearCache.invalidate(parts[2]);
+                listeners.forEach(listener -> listener.onKeyInvalidated(parts[2]));
+            }
+            case KIND_PREFIX -> {
+                nearCache.invalidatePrefix(parts[2]);
+                listeners.forEach(listener -> listener.onPrefixInvalidated(parts[2]));
+            }
+            case KIND_ALL -> {
+                nearCache.invalidateAll();
+                listeners.forEach(InvalidationListener::onAllInvalidated);
+            }
+            default -> logger.warn("Ignoring unknown invalidation message kind: {}", parts[1]);
+        }
+    }
+
+    private void publish(String kind, String argument) {
+        try {
+            stringRedisTemplate.convertAndSend(CHANNEL, message(kind, argument));
+        } catch (Exception e) {
+            logger.error("Error publishing cache invalidation: {}", e.getMessage());
+        }
+    }
+
+    private String message(String kind, String argument) {
+        return nodeId + "|" + kind + "|" + argument;
+    }
+}
@@ -0,0 +1,14 @@
+package com.metastore.metacache.cache;
+
+/**
+ * Receives invalidations broadcast by other metacache replicas.
+ */
+public interface InvalidationListener {
+
+    void onKeyInvalidated(String key);
+
+    default void onPrefixInvalidated(String prefix) {
+    }
+
+    void onAllInvalidated();
+}
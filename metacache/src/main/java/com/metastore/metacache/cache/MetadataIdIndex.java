@@ -0,0 +1,103 @@
+package com.metastore.metacache.cache;
+
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Every metadata ID, kept in a Redis sorted set with equal scores so that ZRANGEBYLEX
+ * walks it in the same order as metaclient's keyset pages. Writes add and remove single
+ * members instead of dropping the view. The set is served only once a full build has
+ * completed; the completion marker expires so that periodic rebuilds pick up IDs written
+ * around metacache.
+ */
+@Component
+public class MetadataIdIndex {
+    private static final String KEY = "metadata:all:ids";
+    private static final String COMPLETE_KEY = "metadata:all:ids:complete";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final TtlPolicy ttlPolicy;
+
+    public MetadataIdIndex(StringRedisTemplate stringRedisTemplate, TtlPolicy ttlPolicy) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.ttlPolicy = ttlPolicy;
+    }
+
+    public String getKey() {
+        return KEY;
+    }
+
+    public boolean isComplete() {
+        return Boolean.TRUE.equals(stringRedisTemplate.hasKey(COMPLETE_KEY));
+    }
+
+    /**
+     * The PTTL of the completion marker; -2 when the index is not complete.
+     */
+    public long remainingTtlMillis() {
+        Long remaining = stringRedisTemplate.getExpire(COMPLETE_KEY, TimeUnit.MILLISECONDS);
+        return remaining != null ? remaining : -2;
+    }
+
+    public void markComplete() {
+        stringRedisTemplate.opsForValue().set(COMPLETE_KEY, "1", ttlPolicy.ttl(TtlPolicy.KeyClass.ALL));
+    }
+
+    public void add(UUID id) {
+        stringRedisTemplate.opsForZSet().add(KEY, id.toString(), 0);
+    }
+
+    public void addAll(Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        Set<TypedTuple<String>> members = new HashSet<>();
+        for (UUID id : ids) {
+            members.add(TypedTuple.of(id.toString(), 0.0));
+        }
+        stringRedisTemplate.opsForZSet().add(KEY, members);
+    }
+
+    public void remove(UUID id) {
+        stringRedisTemplate.opsForZSet().remove(KEY, id.toString());
+    }
+
+    public void removeAll(Collection<UUID> ids) {
+        if (!ids.isEmpty()) {
+            stringRedisTemplate.opsForZSet().remove(KEY, ids.stream().map(UUID::toString).toArray());
+        }
+    }
+
+    /**
+     * Up to {@code limit} IDs strictly after {@code after}, or from the start when it is null.
+     */
+    public List<UUID> page(UUID after, int limit) {
+        Range<String> range = after == null
+                ? Range.unbounded()
+                : Range.rightUnbounded(Range.Bound.exclusive(after.toString()));
+        Set<String> members = stringRedisTemplate.opsForZSet().rangeByLex(KEY, range, Limit.limit().count(limit));
+        List<UUID> ids = new ArrayList<>(members != null ? members.size() : 0);
+        if (members != null) {
+            members.forEach(member -> ids.add(UUID.fromString(member)));
+        }
+        return ids;
+    }
+
+    /**
+     * Drops the index so that the next read rebuilds it, e.g. after a bulk load.
+     */
+    public void reset() {
+        stringRedisTemplate.delete(List.of(COMPLETE_KEY, KEY));
+    }
+}
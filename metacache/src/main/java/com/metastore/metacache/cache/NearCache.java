@@ -0,0 +1,107 @@
+package com.metastore.metacache.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.metastore.metacache.model.Metadata;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+
+/**
+ * Bounded in-process L1 tier in front of Redis. Eviction is Caffeine's W-TinyLFU;
+ * the entry and byte limits are enforced together by giving every entry a weight of
+ * at least {@code maxBytes / maxEntries}.
+ */
+@Component
+public class NearCache {
+
+    private final boolean enabled;
+    private final Cache<String, Entry> cache;
+
+    public NearCache(@Value("${metacache.near-cache.enabled:true}") boolean enabled,
+                     @Value("${metacache.near-cache.max-entries:10000}") long maxEntries,
+                     @Value("${metacache.near-cache.max-bytes:67108864}") long maxBytes,
+                     MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        long minWeight = Math.max(1, maxBytes / Math.max(1, maxEntries));
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String key, Entry entry) -> (int) Math.min(Integer.MAX_VALUE, Math.max(minWeight, entry.bytes())))
+                .expireAfter(new Expiry<String, Entry>() {
+                    @Override
+                    public long expireAfterCreate(String key, Entry entry, long currentTime) {
+                        return entry.ttlNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Entry entry, long currentTime, long currentDuration) {
+                        return entry.ttlNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "metacache.near");
+    }
+
+    public Object get(String key) {
+        if (!enabled) {
+            return null;
+        }
+        Entry entry = cache.getIfPresent(key);
+        return entry != null ? entry.value() : null;
+    }
+
+    public void put(String key, Object value, Duration ttl) {
+        if (!enabled || value == null || ttl.isZero() || ttl.isNegative()) {
+            return;
+        }
+        cache.put(key, new Entry(value, ttl.toNanos(), estimateBytes(key, value)));
+    }
+
+    public void invalidate(String key) {
+        cache.invalidate(key);
+    }
+
+    public void invalidatePrefix(String prefix) {
+        cache.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    static long estimateBytes(String key, Object value) {
+        return 48 + 2L * key.length() + estimateValueBytes(value);
+    }
+
+    private static long estimateValueBytes(Object value) {
+        if (value instanceof String s) {
+            return 40 + 2L * s.length();
+        }
+        if (value instanceof Metadata m) {
+            return 64 + estimateValueBytes(m.getName()) + estimateValueBytes(m.getType())
+                    + estimateValueBytes(m.getIssuer()) + estimateValueBytes(m.getRiskRating());
+        }
+        if (value instanceof Collection<?> c) {
+            long total = 40 + 8L * c.size();
+            for (Object element : c) {
+                total += estimateValueBytes(element);
+            }
+            return total;
+        }
+        return value == null ? 0 : 64;
+    }
+
+    private record Entry(Object value, long ttlNanos, long bytes) {
+    }
+}
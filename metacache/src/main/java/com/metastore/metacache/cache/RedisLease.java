@@ -0,0 +1,42 @@
+package com.metastore.metacache.cache;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A renewable lease held by at most one metacache replica, for background jobs that must
+ * run on a single node. An owner that stops renewing loses the lease when it expires.
+ */
+public class RedisLease {
+
+    private static final RedisScript<Long> ACQUIRE_OR_RENEW = new DefaultRedisScript<>(
+            "local owner = redis.call('GET', KEYS[1]) "
+                    + "if owner == ARGV[1] then redis.call('PEXPIRE', KEYS[1], ARGV[2]) return 1 end "
+                    + "if not owner then redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2]) return 1 end "
+                    + "return 0",
+            Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final String key;
+    private final Duration duration;
+    private final String owner = UUID.randomUUID().toString();
+
+    public RedisLease(StringRedisTemplate stringRedisTemplate, String key, Duration duration) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.key = key;
+        this.duration = duration;
+    }
+
+    /**
+     * @return whether this replica holds the lease for another {@code duration}
+     */
+    public boolean acquireOrRenew() {
+        Long held = stringRedisTemplate.execute(ACQUIRE_OR_RENEW, List.of(key), owner, Long.toString(duration.toMillis()));
+        return Long.valueOf(1).equals(held);
+    }
+}
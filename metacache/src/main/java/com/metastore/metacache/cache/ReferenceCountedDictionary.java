@@ -0,0 +1,204 @@
+package com.metastore.metacache.cache;
+
+import com.metastore.metacache.model.Metadata;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Distinct values of one metadata attribute, kept in Redis as a hash of value to record
+ * count. Writes adjust the counts from the old and new values, so the dictionary is never
+ * invalidated; {@link #reconcile()} replaces the counts with metaclient's when they drift.
+ */
+public class ReferenceCountedDictionary {
+    private static final Logger logger = LoggerFactory.getLogger(ReferenceCountedDictionary.class);
+
+    /**
+     * Applies value/delta pairs and drops values whose count reaches zero. Returns 1 when a
+     * value was added or removed. Does nothing until the dictionary has been seeded, since
+     * counts applied to a missing hash would read as the complete dictionary.
+     */
+    private static final RedisScript<Long> APPLY_DELTAS = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return 0 end "
+                    + "local changed = 0 "
+                    + "for i = 1, #ARGV, 2 do "
+                    + "  local delta = tonumber(ARGV[i + 1]) "
+                    + "  local count = redis.call('HINCRBY', KEYS[1], ARGV[i], delta) "
+                    + "  if count <= 0 then redis.call('HDEL', KEYS[1], ARGV[i]) changed = 1 "
+                    + "  elseif count == delta then changed = 1 end "
+                    + "end "
+                    + "return changed",
+            Long.class);
+
+    /**
+     * Replaces the counts with the value/count pairs from ARGV[2] on and expires the hash
+     * after ARGV[1] milliseconds.
+     */
+    private static final RedisScript<Long> REPLACE_COUNTS = new DefaultRedisScript<>(
+            "redis.call('DEL', KEYS[1]) "
+                    + "for i = 2, #ARGV, 2 do redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1]) end "
+                    + "if #ARGV > 1 then redis.call('PEXPIRE', KEYS[1], ARGV[1]) end "
+                    + "return 1",
+            Long.class);
+
+    private final String name;
+    private final String countsKey;
+    private final String nearCacheKey;
+    private final Function<Metadata, String> attribute;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RestTemplate restTemplate;
+    private final String countsUrl;
+    private final TtlPolicy ttlPolicy;
+    private final Counter corrections;
+
+    public ReferenceCountedDictionary(String name, Function<Metadata, String> attribute,
+                                      StringRedisTemplate stringRedisTemplate, RestTemplate restTemplate,
+                                      String metaclientBaseUrl, TtlPolicy ttlPolicy, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.countsKey = "metadata:" + name + ":refcount";
+        this.nearCacheKey = "metadata:" + name;
+        this.attribute = attribute;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.restTemplate = restTemplate;
+        this.countsUrl = metaclientBaseUrl + "/metadata/" + name + "/counts";
+        this.ttlPolicy = ttlPolicy;
+        this.corrections = Counter.builder("metacache.dictionary.corrections")
+                .description("Reconciliations that found the reference counts out of step with the database")
+                .tag("dictionary", name)
+                .register(meterRegistry);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getCountsKey() {
+        return countsKey;
+    }
+
+    /**
+     * Key of the dictionary's entry in the near cache and on the invalidation bus.
+     */
+    public String getNearCacheKey() {
+        return nearCacheKey;
+    }
+
+    /**
+     * The distinct values in sorted order, or null when the dictionary has not been seeded.
+     */
+    public List<String> values() {
+        Map<Object, Object> counts = stringRedisTemplate.opsForHash().entries(countsKey);
+        if (counts.isEmpty()) {
+            return null;
+        }
+        List<String> values = new ArrayList<>(counts.size());
+        counts.keySet().forEach(value -> values.add((String) value));
+        values.sort(null);
+        return values;
+    }
+
+    /**
+     * The PTTL of the counts hash.
+     */
+    public long remainingTtlMillis() {
+        Long remaining = stringRedisTemplate.getExpire(countsKey, TimeUnit.MILLISECONDS);
+        return remaining != null ? remaining : -2;
+    }
+
+    public boolean recordCreated(Collection<Metadata> created) {
+        Map<String, Long> deltas = new HashMap<>();
+        for (Metadata metadata : created) {
+            adjust(deltas, attribute.apply(metadata), 1);
+        }
+        return apply(deltas);
+    }
+
+    /**
+     * Moves one reference from the old value to the new one; either side may be null for a
+     * create or a delete.
+     */
+    public boolean recordChange(Metadata before, Metadata after) {
+        String oldValue = before != null ? attribute.apply(before) : null;
+        String newValue = after != null ? attribute.apply(after) : null;
+        if (Objects.equals(oldValue, newValue)) {
+            return false;
+        }
+        Map<String, Long> deltas = new HashMap<>();
+        adjust(deltas, oldValue, -1);
+        adjust(deltas, newValue, 1);
+        return apply(deltas);
+    }
+
+    /**
+     * Compares the counts with metaclient's and replaces them if they differ. Either way
+     * the counts have just been verified, so their TTL starts over.
+     *
+     * @return whether the counts were replaced
+     */
+    public boolean reconcile() {
+        Map<String, Long> expected = restTemplate.exchange(countsUrl, HttpMethod.GET, null,
+                new ParameterizedTypeReference<Map<String, Long>>() {
+                }).getBody();
+        if (expected == null) {
+            throw new IllegalStateException("Empty " + name + " counts response from metaclient");
+        }
+        Map<Object, Object> actual = stringRedisTemplate.opsForHash().entries(countsKey);
+        Map<String, Long> current = new HashMap<>();
+        actual.forEach((value, count) -> current.put((String) value, Long.parseLong((String) count)));
+        if (current.equals(expected)) {
+            if (!actual.isEmpty()) {
+                stringRedisTemplate.expire(countsKey, ttlPolicy.ttl(TtlPolicy.KeyClass.DICTIONARY));
+            }
+            return false;
+        }
+        if (!actual.isEmpty()) {
+            corrections.increment();
+            logger.warn("Correcting drift in {} dictionary: {} values cached, {} in the database",
+                    name, current.size(), expected.size());
+        }
+        List<String> arguments = new ArrayList<>(expected.size() * 2 + 1);
+        arguments.add(Long.toString(ttlPolicy.ttl(TtlPolicy.KeyClass.DICTIONARY).toMillis()));
+        expected.forEach((value, count) -> {
+            arguments.add(value);
+            arguments.add(Long.toString(count));
+        });
+        stringRedisTemplate.execute(REPLACE_COUNTS, List.of(countsKey), arguments.toArray());
+        return true;
+    }
+
+    private boolean apply(Map<String, Long> deltas) {
+        deltas.values().removeIf(delta -> delta == 0);
+        if (deltas.isEmpty()) {
+            return false;
+        }
+        List<String> arguments = new ArrayList<>(deltas.size() * 2);
+        deltas.forEach((value, delta) -> {
+            arguments.add(value);
+            arguments.add(Long.toString(delta));
+        });
+        Long changed = stringRedisTemplate.execute(APPLY_DELTAS, List.of(countsKey), arguments.toArray());
+        return Long.valueOf(1).equals(changed);
+    }
+
+    private static void adjust(Map<String, Long> deltas, String value, long delta) {
+        if (value != null) {
+            deltas.merge(value, delta, Long::sum);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.metastore.metacache.cache;
+
+import com.metastore.metacache.cache.TtlPolicy.KeyClass;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Reloads cache entries in the background when they are read close to expiry, so that
+ * hot keys are rewritten before they expire and callers do not take the miss. A short
+ * Redis claim per key keeps replicas from refreshing the same entry together, and is
+ * left to expire after a failed refresh so that retries back off. Refreshes that find
+ * the pool full are dropped, since the entry is still served until it expires.
+ */
+@Component
+public class RefreshAhead {
+    private static final Logger logger = LoggerFactory.getLogger(RefreshAhead.class);
+    private static final String CLAIM_KEY_PREFIX = "metadata:refresh:";
+
+    private final TtlPolicy ttlPolicy;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ThreadPoolExecutor executor;
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    private final Map<KeyClass, DistributionSummary> ages = new EnumMap<>(KeyClass.class);
+    private final Map<KeyClass, Counter> refreshed = new EnumMap<>(KeyClass.class);
+    private final Map<KeyClass, Counter> failed = new EnumMap<>(KeyClass.class);
+    private final Map<KeyClass, Counter> dropped = new EnumMap<>(KeyClass.class);
+
+    @Value("${metacache.refresh-ahead.enabled:true}")
+    private boolean enabled;
+
+    @Value("${metacache.refresh-ahead.claim:PT30S}")
+    private Duration claim;
+
+    public RefreshAhead(TtlPolicy ttlPolicy, StringRedisTemplate stringRedisTemplate, MeterRegistry meterRegistry,
+                        @Value("${metacache.refresh-ahead.threads:2}") int threads,
+                        @Value("${metacache.refresh-ahead.queue-capacity:1000}") int queueCapacity) {
+        this.ttlPolicy = ttlPolicy;
+        this.stringRedisTemplate = stringRedisTemplate;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "refresh-ahead-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        for (KeyClass keyClass : KeyClass.values()) {
+            ages.put(keyClass, DistributionSummary.builder("metacache.cache.entry.age")
+                    .description("Approximate age of entries served from Redis")
+                    .baseUnit("seconds")
+                    .tag("class", keyClass.tag())
+                    .publishPercentiles(0.5, 0.9, 0.99)
+                    .register(meterRegistry));
+            refreshed.put(keyClass, refreshCounter(meterRegistry, keyClass, "success"));
+            failed.put(keyClass, refreshCounter(meterRegistry, keyClass, "failure"));
+            dropped.put(keyClass, refreshCounter(meterRegistry, keyClass, "dropped"));
+        }
+    }
+
+    /**
+     * Records the age of an entry served from Redis.
+     *
+     * @param remainingMillis the entry's PTTL
+     * @return whether the entry is due for a refresh
+     */
+    public boolean observe(KeyClass keyClass, long remainingMillis) {
+        if (remainingMillis < 0) {
+            return false;
+        }
+        ages.get(keyClass).record(ttlPolicy.age(keyClass, remainingMillis).toMillis() / 1000.0);
+        return enabled && ttlPolicy.inRefreshWindow(keyClass, remainingMillis);
+    }
+
+    public void refresh(KeyClass keyClass, String key, Runnable reload) {
+        refresh(keyClass, List.of(key), Function.identity(), claimed -> reload.run());
+    }
+
+    /**
+     * Reloads the items whose keys this replica manages to claim, in one background task.
+     */
+    public <T> void refresh(KeyClass keyClass, Collection<T> items, Function<T, String> keyOf, Consumer<List<T>> reload) {
+        List<T> claimed = new ArrayList<>(items.size());
+        List<String> claimedKeys = new ArrayList<>(items.size());
+        for (T item : items) {
+            String key = keyOf.apply(item);
+            if (inFlight.add(key)) {
+                if (Boolean.TRUE.equals(stringRedisTemplate.opsForValue().setIfAbsent(CLAIM_KEY_PREFIX + key, "1", claim))) {
+                    claimed.add(item);
+                    claimedKeys.add(key);
+                } else {
+                    inFlight.remove(key);
+                }
+            }
+        }
+        if (claimed.isEmpty()) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    reload.accept(claimed);
+                    refreshed.get(keyClass).increment(claimed.size());
+                    releaseClaims(claimedKeys);
+                } catch (Exception e) {
+                    failed.get(keyClass).increment(claimed.size());
+                    logger.warn("Error refreshing {} {} entries ahead of expiry: {}", claimed.size(), keyClass.tag(), e.getMessage());
+                } finally {
+                    claimedKeys.forEach(inFlight::remove);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            dropped.get(keyClass).increment(claimed.size());
+            claimedKeys.forEach(inFlight::remove);
+            releaseClaims(claimedKeys);
+        }
+    }
+
+    private void releaseClaims(List<String> keys) {
+        stringRedisTemplate.delete(keys.stream().map(key -> CLAIM_KEY_PREFIX + key).toList());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static Counter refreshCounter(MeterRegistry meterRegistry, KeyClass keyClass, String outcome) {
+        return Counter.builder("metacache.cache.refresh")
+                .description("Entries reloaded ahead of expiry")
+                .tag("class", keyClass.tag())
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,143 @@
+package com.metastore.metacache.cache;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generation-versioned namespace for cached search results. Search keys embed the
+ * current generation, so invalidating every search result is a single INCR; keys of
+ * older generations are never read again and are reclaimed by TTL or by {@link #sweep()},
+ * which runs on one replica at a time.
+ */
+@Component
+public class SearchNamespace {
+    private static final Logger logger = LoggerFactory.getLogger(SearchNamespace.class);
+    private static final String KEY_PREFIX = "metadata:search:g";
+    private static final String GENERATION_KEY = "metadata:search-generation";
+    private static final String GENERATION_SIZES_KEY = "metadata:search-generation:sizes";
+    private static final String LEASE_KEY = "metadata:search-generation:sweeper";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisLease sweeperLease;
+    private final AtomicLong staleKeys = new AtomicLong();
+
+    @Value("${metacache.namespace.sweeper.scan-count:500}")
+    private int scanCount;
+
+    public SearchNamespace(StringRedisTemplate stringRedisTemplate, MeterRegistry meterRegistry,
+                           @Value("${metacache.namespace.sweeper.lease:PT2M}") Duration sweeperLease) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.sweeperLease = new RedisLease(stringRedisTemplate, LEASE_KEY, sweeperLease);
+        Gauge.builder("metacache.search.stale.keys", staleKeys, AtomicLong::get)
+                .description("Search result keys of superseded generations not yet reclaimed")
+                .register(meterRegistry);
+    }
+
+    public long currentGeneration() {
+        String generation = stringRedisTemplate.opsForValue().get(GENERATION_KEY);
+        return generation != null ? Long.parseLong(generation) : 0L;
+    }
+
+    public String key(long generation, String suffix) {
+        return KEY_PREFIX + generation + ":" + suffix;
+    }
+
+    public void recordWrite(long generation) {
+        stringRedisTemplate.opsForHash().increment(GENERATION_SIZES_KEY, Long.toString(generation), 1);
+    }
+
+    public long advance() {
+        Long generation = stringRedisTemplate.opsForValue().increment(GENERATION_KEY);
+        return generation != null ? generation : 0L;
+    }
+
+    @Scheduled(fixedDelayString = "${metacache.namespace.sweeper.interval:PT30S}")
+    public void sweep() {
+        try {
+            if (!sweeperLease.acquireOrRenew()) {
+                return;
+            }
+            long current = currentGeneration();
+            Map<Long, Long> reclaimed = new HashMap<>();
+            List<String> batch = new ArrayList<>(scanCount);
+            ScanOptions options = ScanOptions.scanOptions().match(KEY_PREFIX + "*").count(scanCount).build();
+            try (Cursor<String> cursor = stringRedisTemplate.scan(options)) {
+                while (cursor.hasNext()) {
+                    String key = cursor.next();
+                    long generation = generationOf(key);
+                    if (generation >= 0 && generation < current) {
+                        batch.add(key);
+                        reclaimed.merge(generation, 1L, Long::sum);
+                        if (batch.size() >= scanCount) {
+                            stringRedisTemplate.unlink(batch);
+                            batch.clear();
+                        }
+                    }
+                }
+            }
+            if (!batch.isEmpty()) {
+                stringRedisTemplate.unlink(batch);
+            }
+            // A full pass has seen every key, so counters of superseded generations are now settled.
+            List<Object> staleFields = new ArrayList<>();
+            for (Object field : stringRedisTemplate.opsForHash().keys(GENERATION_SIZES_KEY)) {
+                if (Long.parseLong(field.toString()) < current) {
+                    staleFields.add(field);
+                }
+            }
+            if (!staleFields.isEmpty()) {
+                stringRedisTemplate.opsForHash().delete(GENERATION_SIZES_KEY, staleFields.toArray());
+            }
+            staleKeys.set(0);
+            if (!reclaimed.isEmpty()) {
+                logger.info("Reclaimed {} stale search keys across {} generations",
+                        reclaimed.values().stream().mapToLong(Long::longValue).sum(), reclaimed.size());
+            }
+        } catch (Exception e) {
+            logger.error("Error sweeping stale search keys: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${metacache.namespace.stale-gauge.interval:PT10S}")
+    public void refreshStaleKeyCount() {
+        try {
+            long current = currentGeneration();
+            long outstanding = 0;
+            for (Map.Entry<Object, Object> entry : stringRedisTemplate.opsForHash().entries(GENERATION_SIZES_KEY).entrySet()) {
+                if (Long.parseLong(entry.getKey().toString()) < current) {
+                    outstanding += Long.parseLong(entry.getValue().toString());
+                }
+            }
+            staleKeys.set(outstanding);
+        } catch (Exception e) {
+            logger.error("Error counting stale search keys: {}", e.getMessage());
+        }
+    }
+
+    private long generationOf(String key) {
+        int end = key.indexOf(':', KEY_PREFIX.length());
+        if (end < 0) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(key.substring(KEY_PREFIX.length(), end));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
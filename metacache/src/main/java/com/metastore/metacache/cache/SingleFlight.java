@@ -0,0 +1,132 @@
+package com.metastore.metacache.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent cache-miss loads of the same key so that only one caller per
+ * process, and optionally per cluster through a short Redis lease, reaches metaclient.
+ */
+@Component
+public class SingleFlight {
+    private static final String LEASE_KEY_PREFIX = "metadata:lease:";
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ConcurrentMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Counter loads;
+    private final Counter localCoalesced;
+    private final Counter clusterCoalesced;
+
+    @Value("${metacache.single-flight.cluster.enabled:false}")
+    private boolean clusterEnabled;
+
+    @Value("${metacache.single-flight.cluster.lease:PT5S}")
+    private Duration lease;
+
+    @Value("${metacache.single-flight.cluster.poll-interval:PT0.05S}")
+    private Duration pollInterval;
+
+    public SingleFlight(StringRedisTemplate stringRedisTemplate, MeterRegistry meterRegistry) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.loads = Counter.builder("metacache.singleflight.loads")
+                .description("Cache-miss loads executed against metaclient")
+                .register(meterRegistry);
+        this.localCoalesced = Counter.builder("metacache.singleflight.coalesced")
+                .tag("scope", "local")
+                .description("Callers that waited for an in-process load instead of loading themselves")
+                .register(meterRegistry);
+        this.clusterCoalesced = Counter.builder("metacache.singleflight.coalesced")
+                .tag("scope", "cluster")
+                .description("Callers that waited for another replica's load instead of loading themselves")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs {@code loader} unless a load of {@code key} is already in flight, in which case
+     * the caller waits for and shares that result. {@code cached} re-reads the shared cache
+     * and is polled while another replica holds the lease.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Supplier<T> loader, Supplier<T> cached) {
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            localCoalesced.increment();
+            try {
+                return (T) existing.join();
+            } catch (CompletionException e) {
+                throw unwrap(e);
+            }
+        }
+        try {
+            T result = clusterEnabled ? loadWithLease(key, loader, cached) : load(loader);
+            mine.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private <T> T loadWithLease(String key, Supplier<T> loader, Supplier<T> cached) {
+        String leaseKey = LEASE_KEY_PREFIX + key;
+        String token = UUID.randomUUID().toString();
+        Boolean acquired = stringRedisTemplate.opsForValue().setIfAbsent(leaseKey, token, lease);
+        if (Boolean.TRUE.equals(acquired)) {
+            try {
+                return load(loader);
+            } finally {
+                stringRedisTemplate.execute(RELEASE_SCRIPT, Collections.singletonList(leaseKey), token);
+            }
+        }
+
+        clusterCoalesced.increment();
+        long deadline = System.nanoTime() + lease.toNanos();
+        while (System.nanoTime() < deadline) {
+            T result = cached.get();
+            if (result != null) {
+                return result;
+            }
+            if (!Boolean.TRUE.equals(stringRedisTemplate.hasKey(leaseKey))) {
+                break;
+            }
+            try {
+                Thread.sleep(pollInterval.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        T result = cached.get();
+        return result != null ? result : load(loader);
+    }
+
+    private <T> T load(Supplier<T> loader) {
+        loads.increment();
+        return loader.get();
+    }
+
+    private RuntimeException unwrap(CompletionException e) {
+        Throwable cause = e.getCause();
+        return cause instanceof RuntimeException runtimeException ? runtimeException : e;
+    }
+}
@@ -0,0 +1,74 @@
+package com.metastore.metacache.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Expiry of the cache's Redis keys by key class. Each write gets the class TTL shortened
+ * by a random fraction of up to {@code metacache.ttl.jitter}, so that keys written
+ * together do not expire together; the configured TTL is therefore an upper bound.
+ */
+@Component
+public class TtlPolicy {
+
+    public enum KeyClass {
+        ID, ALL, DICTIONARY, SEARCH, MISSING;
+
+        public String tag() {
+            return name().toLowerCase();
+        }
+    }
+
+    private final Map<KeyClass, Duration> ttls = new EnumMap<>(KeyClass.class);
+    private final double jitter;
+    private final double refreshAhead;
+
+    public TtlPolicy(@Value("${metacache.ttl.id:PT24H}") Duration idTtl,
+                     @Value("${metacache.ttl.all:PT24H}") Duration allTtl,
+                     @Value("${metacache.ttl.dictionary:PT24H}") Duration dictionaryTtl,
+                     @Value("${metacache.ttl.search:PT1H}") Duration searchTtl,
+                     @Value("${metacache.ttl.missing:PT1M}") Duration missingTtl,
+                     @Value("${metacache.ttl.jitter:0.1}") double jitter,
+                     @Value("${metacache.ttl.refresh-ahead:0.1}") double refreshAhead) {
+        if (jitter < 0 || jitter >= 1 || refreshAhead < 0 || refreshAhead >= 1) {
+            throw new IllegalArgumentException("metacache.ttl.jitter and refresh-ahead must be in [0, 1)");
+        }
+        ttls.put(KeyClass.ID, idTtl);
+        ttls.put(KeyClass.ALL, allTtl);
+        ttls.put(KeyClass.DICTIONARY, dictionaryTtl);
+        ttls.put(KeyClass.SEARCH, searchTtl);
+        ttls.put(KeyClass.MISSING, missingTtl);
+        this.jitter = jitter;
+        this.refreshAhead = refreshAhead;
+    }
+
+    /**
+     * The TTL for a key written now.
+     */
+    public Duration ttl(KeyClass keyClass) {
+        long millis = ttls.get(keyClass).toMillis();
+        long spread = (long) (millis * jitter);
+        return Duration.ofMillis(millis - (spread > 0 ? ThreadLocalRandom.current().nextLong(spread + 1) : 0));
+    }
+
+    /**
+     * Whether an entry with {@code remainingMillis} to live (as returned by PTTL) has
+     * entered the last {@code metacache.ttl.refresh-ahead} fraction of its class TTL.
+     */
+    public boolean inRefreshWindow(KeyClass keyClass, long remainingMillis) {
+        return remainingMillis >= 0 && remainingMillis < ttls.get(keyClass).toMillis() * refreshAhead;
+    }
+
+    /**
+     * Approximate age of an entry from its remaining TTL; jitter can overstate it by up
+     * to {@code jitter} of the class TTL.
+     */
+    public Duration age(KeyClass keyClass, long remainingMillis) {
+        return Duration.ofMillis(Math.max(0, ttls.get(keyClass).toMillis() - remainingMillis));
+    }
+}
@@ -0,0 +1,403 @@
+package com.metastore.metacache.changes;
+
+import com.metastore.metacache.cache.SearchNamespace;
+import com.metastore.metacache.cache.DictionaryReconciler;
+import com.metastore.metacache.cache.IdBloomFilter;
+import com.metastore.metacache.cache.InvalidationBus;
+import com.metastore.metacache.cache.MetadataIdIndex;
+import com.metastore.metacache.cache.RedisLease;
+import com.metastore.metacache.cache.ReferenceCountedDictionary;
+import com.metastore.metacache.codec.MetadataRecords;
+import com.metastore.metacache.index.SearchIndex;
+import com.metastore.metacache.model.ChangeEvent;
+import com.metastore.metacache.model.ChangeFeedPage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Applies metaclient's change feed to the shared caches, so that writes made directly
+ * against metaclient reach them too: cached records take the event's after image and
+ * everything derived from them is invalidated. One replica at a time consumes the feed, holding
+ * {@code metadata:changes:consumer}, and resumes from the checkpoint in
+ * {@code metadata:changes:checkpoint}.
+ * <p>
+ * The checkpoint only advances over contiguous sequence numbers: a missing number may
+ * belong to a transaction that has not committed yet, so events after it wait until it
+ * appears or {@code metacache.changes.gap-timeout} passes. Events may still be applied
+ * twice after a failure: record writes are ordered by sequence number, invalidations are
+ * idempotent and dictionary deltas are applied once per sequence number.
+ */
+@Component
+public class ChangeFeedConsumer {
+    private static final Logger logger = LoggerFactory.getLogger(ChangeFeedConsumer.class);
+    private static final String CHECKPOINT_KEY = "metadata:changes:checkpoint";
+    private static final String APPLIED_KEY = "metadata:changes:applied";
+    private static final String LEASE_KEY = "metadata:changes:consumer";
+    private static final String RELOAD_PENDING_KEY = "metadata:changes:reload-pending";
+    private static final String ID_KEY_PREFIX = "metadata:";
+    private static final String RECORD_KEY_PREFIX = "metadata:record:";
+    private static final String SEARCH_KEY_PREFIX = "metadata:search:";
+    // Changes flushed by write-behind were applied to the cache when they were queued.
+    private static final String SOURCE_WRITE_BEHIND = "batch";
+    private static final String CHANGE_SEQUENCE_FIELD = "_changeSeq";
+
+    /**
+     * Writes an event's after image into a cached record, keeping its TTL, unless an event
+     * with a later sequence number has already been written there. ARGV holds the sequence
+     * number, the number of field-value pairs, the pairs, then the fields the after image
+     * no longer has. A missing record is left to be loaded on demand.
+     */
+    private static final String APPLY_AFTER_IMAGE = "if redis.call('EXISTS', KEYS[1]) == 0 then return 0 end "
+            + "local applied = redis.call('HGET', KEYS[1], '" + CHANGE_SEQUENCE_FIELD + "') "
+            + "if applied and tonumber(applied) >= tonumber(ARGV[1]) then return 0 end "
+            + "local fields = tonumber(ARGV[2]) * 2 "
+            + "redis.call('HSET', KEYS[1], '" + CHANGE_SEQUENCE_FIELD + "', ARGV[1], unpack(ARGV, 3, 2 + fields)) "
+            + "if #ARGV > 2 + fields then redis.call('HDEL', KEYS[1], unpack(ARGV, 3 + fields)) end "
+            + "return 1";
+
+    private final RestTemplate restTemplate;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final InvalidationBus invalidationBus;
+    private final SearchIndex searchIndex;
+    private final IdBloomFilter idBloomFilter;
+    private final MetadataIdIndex idIndex;
+    private final SearchNamespace searchNamespace;
+    private final List<ReferenceCountedDictionary> dictionaries;
+    private final DictionaryReconciler dictionaryReconciler;
+    private final RedisLease lease;
+    private final Map<Long, Long> gapsFirstSeen = new HashMap<>();
+    private final AtomicLong backlog = new AtomicLong();
+    private final AtomicLong lagMillis = new AtomicLong();
+    private final Counter applied;
+    private final Counter skippedGaps;
+    private final Counter resyncs;
+
+    @Value("${metacache.metaclient.base-url:http://metaclient:8081}")
+    private String metaclientBaseUrl;
+
+    @Value("${metacache.changes.enabled:true}")
+    private boolean enabled;
+
+    @Value("${metacache.changes.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${metacache.changes.max-batches-per-poll:20}")
+    private int maxBatchesPerPoll;
+
+    @Value("${metacache.changes.gap-timeout:PT10S}")
+    private Duration gapTimeout;
+
+    @Value("${metacache.changes.reload-quiet-period:PT2S}")
+    private Duration reloadQuietPeriod;
+
+    public ChangeFeedConsumer(RestTemplate restTemplate, StringRedisTemplate stringRedisTemplate,
+                              InvalidationBus invalidationBus, SearchIndex searchIndex, IdBloomFilter idBloomFilter,
+                              MetadataIdIndex idIndex,
+                              SearchNamespace searchNamespace,
+                              List<ReferenceCountedDictionary> dictionaries, DictionaryReconciler dictionaryReconciler,
+                              @Value("${metacache.changes.lease:PT30S}") Duration leaseDuration,
+                              MeterRegistry meterRegistry) {
+        this.restTemplate = restTemplate;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.invalidationBus = invalidationBus;
+        this.searchIndex = searchIndex;
+        this.idBloomFilter = idBloomFilter;
+        this.idIndex = idIndex;
+        this.searchNamespace = searchNamespace;
+        this.dictionaries = dictionaries;
+        this.dictionaryReconciler = dictionaryReconciler;
+        this.lease = new RedisLease(stringRedisTemplate, LEASE_KEY, leaseDuration);
+        Gauge.builder("metacache.changes.backlog", backlog, AtomicLong::get)
+                .description("Change feed events not yet applied")
+                .register(meterRegistry);
+        Gauge.builder("metacache.changes.lag", lagMillis, value -> value.get() / 1000.0)
+                .description("Age of the oldest change feed event not yet applied")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        this.applied = Counter.builder("metacache.changes.applied")
+                .description("Change feed events applied to the caches")
+                .register(meterRegistry);
+        this.skippedGaps = Counter.builder("metacache.changes.gaps.skipped")
+                .description("Missing sequence numbers given up on after the gap timeout")
+                .register(meterRegistry);
+        this.resyncs = Counter.builder("metacache.changes.resyncs")
+                .description("Full cache resyncs after bulk loads or events lost to the feed's retention")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Whether the feed, rather than metacache's own write path, maintains the dictionaries.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Scheduled(fixedDelayString = "${metacache.changes.poll-interval:PT1S}")
+    public void poll() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            for (int i = 0; i < maxBatchesPerPoll; i++) {
+                if (!lease.acquireOrRenew()) {
+                    return;
+                }
+                if (!consumeBatch()) {
+                    break;
+                }
+            }
+            resyncAfterReload();
+        } catch (Exception e) {
+            logger.error("Error consuming change feed, retrying: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @return whether the checkpoint advanced over a full batch, so more may be waiting
+     */
+    private boolean consumeBatch() {
+        String stored = stringRedisTemplate.opsForValue().get(CHECKPOINT_KEY);
+        if (stored == null) {
+            Long latestSequence = fetch(0, 1).getLatestSequence();
+            long latest = latestSequence != null ? latestSequence : 0L;
+            stringRedisTemplate.opsForValue().set(CHECKPOINT_KEY, Long.toString(latest));
+            logger.info("Starting change feed consumption after sequence {}", latest);
+            return false;
+        }
+        long checkpoint = Long.parseLong(stored);
+        ChangeFeedPage page = fetch(checkpoint, batchSize);
+        List<ChangeEvent> changes = page.getChanges() != null ? page.getChanges() : List.of();
+        if (page.getOldestSequence() != null && checkpoint + 1 < page.getOldestSequence()
+                && gapExpired(checkpoint + 1)) {
+            // The events we still needed have been purged.
+            resync();
+            return advance(checkpoint, page.getLatestSequence(), page, changes);
+        }
+
+        long next = checkpoint;
+        for (ChangeEvent change : changes) {
+            if (change.getSequence() != next + 1) {
+                if (!gapExpired(next + 1)) {
+                    break;
+                }
+                skippedGaps.increment(change.getSequence() - next - 1);
+                logger.warn("Skipping change feed sequences {} to {}, never committed", next + 1, change.getSequence() - 1);
+            }
+            next = change.getSequence();
+        }
+        // Events past an open gap are left for the poll that closes it, rather than
+        // re-applied on every poll until then.
+        long contiguous = next;
+        apply(changes.stream().filter(change -> change.getSequence() <= contiguous).toList());
+        return advance(checkpoint, next, page, changes) && changes.size() == batchSize;
+    }
+
+    private boolean advance(long checkpoint, long next, ChangeFeedPage page, List<ChangeEvent> changes) {
+        if (next > checkpoint) {
+            stringRedisTemplate.opsForValue().set(CHECKPOINT_KEY, Long.toString(next));
+            stringRedisTemplate.opsForZSet().removeRangeByScore(APPLIED_KEY, Double.NEGATIVE_INFINITY, next);
+            gapsFirstSeen.keySet().removeIf(sequence -> sequence <= next);
+        }
+        long latest = page.getLatestSequence() != null ? page.getLatestSequence() : next;
+        backlog.set(Math.max(0, latest - next));
+        lagMillis.set(changes.stream()
+                .filter(change -> change.getSequence() > next)
+                .findFirst()
+                .map(change -> Math.max(0, System.currentTimeMillis() - change.getCreatedAt()))
+                .orElse(0L));
+        return next > checkpoint;
+    }
+
+    private boolean gapExpired(long sequence) {
+        long now = System.nanoTime();
+        long firstSeen = gapsFirstSeen.computeIfAbsent(sequence, key -> now);
+        return now - firstSeen >= gapTimeout.toNanos();
+    }
+
+    private void apply(List<ChangeEvent> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        boolean reload = false;
+        List<ChangeEvent> rowChanges = new ArrayList<>(changes.size());
+        for (ChangeEvent change : changes) {
+            if (ChangeEvent.RELOAD.equals(change.getOperation())) {
+                reload = true;
+            } else if (change.getId() != null) {
+                rowChanges.add(change);
+            }
+        }
+
+        Set<String> keys = new LinkedHashSet<>();
+        byte[] script = APPLY_AFTER_IMAGE.getBytes(StandardCharsets.UTF_8);
+        byte[] idIndexKey = idIndex.getKey().getBytes(StandardCharsets.UTF_8);
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (ChangeEvent change : rowChanges) {
+                String id = change.getId().toString();
+                byte[] recordKey = (RECORD_KEY_PREFIX + id).getBytes(StandardCharsets.UTF_8);
+                keys.add(ID_KEY_PREFIX + id);
+                if (ChangeEvent.DELETE.equals(change.getOperation()) || change.getAfter() == null) {
+                    connection.keyCommands().del(recordKey);
+                } else if (!SOURCE_WRITE_BEHIND.equals(change.getSource())) {
+                    connection.scriptingCommands().eval(script, ReturnType.INTEGER, 1,
+                            afterImageArguments(recordKey, change));
+                }
+                if (ChangeEvent.CREATE.equals(change.getOperation())) {
+                    connection.zSetCommands().zAdd(idIndexKey, 0, id.getBytes(StandardCharsets.UTF_8));
+                } else if (ChangeEvent.DELETE.equals(change.getOperation())) {
+                    connection.zSetCommands().zRem(idIndexKey, id.getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            return null;
+        });
+        for (ChangeEvent change : rowChanges) {
+            if (change.getAfter() != null) {
+                idBloomFilter.add(change.getId());
+                searchIndex.put(change.getAfter());
+            } else {
+                searchIndex.remove(change.getId());
+            }
+        }
+        invalidationBus.invalidateKeys(keys);
+        applyDictionaryChanges(rowChanges);
+        if (reload) {
+            stringRedisTemplate.opsForValue().set(RELOAD_PENDING_KEY, Long.toString(System.currentTimeMillis()));
+        }
+        if (!rowChanges.isEmpty()) {
+            searchNamespace.advance();
+            invalidationBus.invalidatePrefix(SEARCH_KEY_PREFIX);
+        }
+        applied.increment(changes.size());
+    }
+
+    private static byte[][] afterImageArguments(byte[] recordKey, ChangeEvent change) {
+        Map<String, String> record = MetadataRecords.toRecord(change.getAfter());
+        List<byte[]> keysAndArgs = new ArrayList<>();
+        keysAndArgs.add(recordKey);
+        keysAndArgs.add(Long.toString(change.getSequence()).getBytes(StandardCharsets.UTF_8));
+        keysAndArgs.add(Integer.toString(record.size()).getBytes(StandardCharsets.UTF_8));
+        record.forEach((field, value) -> {
+            keysAndArgs.add(field.getBytes(StandardCharsets.UTF_8));
+            keysAndArgs.add(value.getBytes(StandardCharsets.UTF_8));
+        });
+        for (String field : MetadataRecords.FIELDS) {
+            if (!record.containsKey(field)) {
+                keysAndArgs.add(field.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        return keysAndArgs.toArray(byte[][]::new);
+    }
+
+    /**
+     * Moves dictionary references for changes not applied before. A change without a
+     * before-image (a set-based update) cannot be applied as a delta, so the dictionaries
+     * are reconciled instead.
+     */
+    private void applyDictionaryChanges(List<ChangeEvent> rowChanges) {
+        List<ChangeEvent> candidates = rowChanges.stream()
+                .filter(change -> !SOURCE_WRITE_BEHIND.equals(change.getSource()))
+                .toList();
+        if (candidates.isEmpty()) {
+            return;
+        }
+        List<Object> added = stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, String> redisOperations = (RedisOperations<String, String>) operations;
+                for (ChangeEvent change : candidates) {
+                    redisOperations.opsForZSet().addIfAbsent(APPLIED_KEY, Long.toString(change.getSequence()),
+                            change.getSequence());
+                }
+                return null;
+            }
+        });
+        boolean reconcile = false;
+        Set<ReferenceCountedDictionary> changed = new LinkedHashSet<>();
+        for (int i = 0; i < candidates.size(); i++) {
+            if (!Boolean.TRUE.equals(added.get(i))) {
+                continue;
+            }
+            ChangeEvent change = candidates.get(i);
+            if (ChangeEvent.UPDATE.equals(change.getOperation()) && change.getBefore() == null) {
+                reconcile = true;
+                continue;
+            }
+            for (ReferenceCountedDictionary dictionary : dictionaries) {
+                try {
+                    if (dictionary.recordChange(change.getBefore(), change.getAfter())) {
+                        changed.add(dictionary);
+                    }
+                } catch (Exception e) {
+                    // Left for the reconciliation job to repair.
+                    logger.error("Error updating {} dictionary: {}", dictionary.getName(), e.getMessage());
+                }
+            }
+        }
+        if (reconcile) {
+            dictionaries.forEach(dictionaryReconciler::reconcile);
+        } else {
+            changed.forEach(dictionary -> invalidationBus.invalidateKey(dictionary.getNearCacheKey()));
+        }
+    }
+
+    /**
+     * Bulk loads commit one RELOAD event per chunk; the resync waits until none has
+     * arrived for {@code metacache.changes.reload-quiet-period}, so a long load costs one
+     * rebuild. The pending marker lives in Redis so that it survives a lease hand-over.
+     */
+    private void resyncAfterReload() {
+        String pendingSince = stringRedisTemplate.opsForValue().get(RELOAD_PENDING_KEY);
+        if (pendingSince == null
+                || System.currentTimeMillis() - Long.parseLong(pendingSince) < reloadQuietPeriod.toMillis()) {
+            return;
+        }
+        resync();
+        stringRedisTemplate.delete(RELOAD_PENDING_KEY);
+    }
+
+    /**
+     * Drops everything derived from the whole table, for bulk loads and for events lost
+     * to the feed's retention.
+     */
+    private void resync() {
+        resyncs.increment();
+        idIndex.reset();
+        dictionaries.forEach(dictionaryReconciler::reconcile);
+        searchNamespace.advance();
+        invalidationBus.invalidateAll();
+        searchIndex.rebuild();
+        idBloomFilter.rebuild();
+    }
+
+    private ChangeFeedPage fetch(long after, int limit) {
+        ChangeFeedPage page = restTemplate.getForObject(
+                metaclientBaseUrl + "/metadata/changes?after={after}&limit={limit}", ChangeFeedPage.class, after, limit);
+        if (page == null) {
+            throw new IllegalStateException("Empty change feed response from metaclient");
+        }
+        return page;
+    }
+}
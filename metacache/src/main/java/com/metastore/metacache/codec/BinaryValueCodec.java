@@ -0,0 +1,109 @@
+package com.metastore.metacache.codec;
+
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Compact, schema-versioned encoding for lists of UUIDs, the only values still stored as
+ * Redis strings: records and dictionaries are hashes, and cached searches are ID lists.
+ * A value is {@code MAGIC VERSION KIND count} followed by 16 raw bytes per UUID.
+ */
+public class BinaryValueCodec implements ValueCodec {
+    /**
+     * Never the first byte of JSON or of UTF-8 text.
+     */
+    static final byte MAGIC = (byte) 0xC1;
+    static final byte VERSION = 1;
+
+    /**
+     * Kinds 1 to 4 held records, record lists, pages and string lists, which are no longer
+     * written; values of those kinds are read as misses.
+     */
+    private static final byte KIND_UUID_LIST = 5;
+
+    @Override
+    public boolean supports(Object value) {
+        if (!(value instanceof List<?> list)) {
+            return false;
+        }
+        for (Object element : list) {
+            if (!(element instanceof UUID)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean recognizes(byte[] bytes) {
+        return bytes.length > 0 && bytes[0] == MAGIC;
+    }
+
+    @Override
+    public byte[] encode(Object value) {
+        if (!supports(value)) {
+            throw new SerializationException("Unsupported value type for binary codec: "
+                    + (value != null ? value.getClass().getName() : "null"));
+        }
+        List<?> ids = (List<?>) value;
+        ByteBuffer buffer = ByteBuffer.allocate(3 + 5 + 16 * ids.size());
+        buffer.put(MAGIC).put(VERSION).put(KIND_UUID_LIST);
+        putVarint(buffer, ids.size());
+        for (Object element : ids) {
+            UUID id = (UUID) element;
+            buffer.putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits());
+        }
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    /**
+     * Returns null for values written by another schema version or of a retired kind, so
+     * that they are reloaded rather than misread.
+     */
+    @Override
+    public Object decode(byte[] bytes) {
+        if (!recognizes(bytes) || bytes.length < 3) {
+            throw new SerializationException("Not a binary-encoded value");
+        }
+        if (bytes[1] != VERSION || bytes[2] != KIND_UUID_LIST) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, 3, bytes.length - 3);
+        try {
+            int size = getVarint(buffer);
+            List<UUID> ids = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                ids.add(new UUID(buffer.getLong(), buffer.getLong()));
+            }
+            return ids;
+        } catch (BufferUnderflowException e) {
+            throw new SerializationException("Truncated binary value", e);
+        }
+    }
+
+    private static void putVarint(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static int getVarint(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new SerializationException("Malformed varint");
+    }
+}
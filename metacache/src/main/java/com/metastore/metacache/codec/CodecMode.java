@@ -0,0 +1,19 @@
+package com.metastore.metacache.codec;
+
+/**
+ * Which format Redis values are written in, and which formats are read back.
+ */
+public enum CodecMode {
+    /**
+     * Write and read the legacy type-tagged JSON only.
+     */
+    JSON,
+    /**
+     * Write binary and read both formats, for rolling out over values written as JSON.
+     */
+    MIGRATE,
+    /**
+     * Write and read binary only; legacy JSON values are treated as cache misses.
+     */
+    BINARY
+}
@@ -0,0 +1,30 @@
+package com.metastore.metacache.codec;
+
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+/**
+ * The legacy format: JSON with class-name type metadata.
+ */
+public class JsonValueCodec implements ValueCodec {
+    private final GenericJackson2JsonRedisSerializer serializer = new GenericJackson2JsonRedisSerializer();
+
+    @Override
+    public boolean supports(Object value) {
+        return true;
+    }
+
+    @Override
+    public boolean recognizes(byte[] bytes) {
+        return bytes.length > 0 && bytes[0] != BinaryValueCodec.MAGIC;
+    }
+
+    @Override
+    public byte[] encode(Object value) {
+        return serializer.serialize(value);
+    }
+
+    @Override
+    public Object decode(byte[] bytes) {
+        return serializer.deserialize(bytes);
+    }
+}
@@ -0,0 +1,53 @@
+package com.metastore.metacache.codec;
+
+import com.metastore.metacache.model.Metadata;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Maps {@link Metadata} to and from the per-record Redis hash, one field per attribute.
+ */
+public final class MetadataRecords {
+    public static final List<String> FIELDS = List.of("id", "name", "type", "issuer", "riskRating");
+
+    private MetadataRecords() {
+    }
+
+    public static Map<String, String> toRecord(Metadata metadata) {
+        Map<String, String> record = new HashMap<>();
+        for (String field : FIELDS) {
+            String value = fieldValue(metadata, field);
+            if (value != null) {
+                record.put(field, value);
+            }
+        }
+        return record;
+    }
+
+    public static Metadata fromRecord(Map<String, String> record) {
+        if (record == null || record.get("id") == null) {
+            return null;
+        }
+        Metadata metadata = new Metadata();
+        metadata.setId(UUID.fromString(record.get("id")));
+        metadata.setName(record.get("name"));
+        metadata.setType(record.get("type"));
+        metadata.setIssuer(record.get("issuer"));
+        metadata.setRiskRating(record.get("riskRating"));
+        return metadata;
+    }
+
+    public static String fieldValue(Metadata metadata, String field) {
+        return switch (field) {
+            case "id" -> metadata.getId() != null ? metadata.getId().toString() : null;
+            case "name" -> metadata.getName();
+            case "type" -> metadata.getType();
+            case "issuer" -> metadata.getIssuer();
+            case "riskRating" -> metadata.getRiskRating();
+            default -> throw new IllegalArgumentException("Unknown field: " + field);
+        };
+    }
+}
@@ -0,0 +1,18 @@
+package com.metastore.metacache.codec;
+
+/**
+ * Encodes cached values to the bytes stored in Redis and back.
+ */
+public interface ValueCodec {
+
+    boolean supports(Object value);
+
+    /**
+     * Whether the bytes were written by this codec.
+     */
+    boolean recognizes(byte[] bytes);
+
+    byte[] encode(Object value);
+
+    Object decode(byte[] bytes);
+}
@@ -0,0 +1,32 @@
+package com.metastore.metacache.config;
+
+import com.metastore.metacache.cache.ReferenceCountedDictionary;
+import com.metastore.metacache.cache.TtlPolicy;
+import com.metastore.metacache.model.Metadata;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.web.client.RestTemplate;
+
+@Configuration
+public class DictionaryConfig {
+
+    @Value("${metacache.metaclient.base-url:http://metaclient:8081}")
+    private String metaclientBaseUrl;
+
+    @Bean
+    public ReferenceCountedDictionary typesDictionary(StringRedisTemplate stringRedisTemplate, RestTemplate restTemplate,
+                                                      TtlPolicy ttlPolicy, MeterRegistry meterRegistry) {
+        return new ReferenceCountedDictionary("types", Metadata::getType, stringRedisTemplate, restTemplate,
+                metaclientBaseUrl, ttlPolicy, meterRegistry);
+    }
+
+    @Bean
+    public ReferenceCountedDictionary issuersDictionary(StringRedisTemplate stringRedisTemplate, RestTemplate restTemplate,
+                                                        TtlPolicy ttlPolicy, MeterRegistry meterRegistry) {
+        return new ReferenceCountedDictionary("issuers", Metadata::getIssuer, stringRedisTemplate, restTemplate,
+                metaclientBaseUrl, ttlPolicy, meterRegistry);
+    }
+}
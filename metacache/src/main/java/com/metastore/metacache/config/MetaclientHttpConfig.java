@@ -0,0 +1,135 @@
+package com.metastore.metacache.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.io.ConnectionEndpoint;
+import org.apache.hc.client5.http.io.LeaseRequest;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * HTTP transport for metacache to metaclient calls: a bounded keep-alive connection pool
+ * with connect, pool-wait and response timeouts, and gzip responses.
+ */
+@Configuration
+public class MetaclientHttpConfig {
+
+    @Value("${metacache.metaclient.http.max-connections:200}")
+    private int maxConnections;
+
+    @Value("${metacache.metaclient.http.max-connections-per-route:100}")
+    private int maxConnectionsPerRoute;
+
+    @Value("${metacache.metaclient.http.connect-timeout:PT2S}")
+    private Duration connectTimeout;
+
+    @Value("${metacache.metaclient.http.response-timeout:PT10S}")
+    private Duration responseTimeout;
+
+    @Value("${metacache.metaclient.http.pool-wait-timeout:PT1S}")
+    private Duration poolWaitTimeout;
+
+    @Value("${metacache.metaclient.http.keep-alive:PT30S}")
+    private Duration keepAlive;
+
+    @Value("${metacache.metaclient.http.idle-eviction:PT60S}")
+    private Duration idleEviction;
+
+    @Value("${metacache.metaclient.http.validate-after-inactivity:PT2S}")
+    private Duration validateAfterInactivity;
+
+    @Value("${metacache.metaclient.http.compression:true}")
+    private boolean compression;
+
+    @Bean
+    public PoolingHttpClientConnectionManager metaclientConnectionManager(MeterRegistry meterRegistry) {
+        PoolingHttpClientConnectionManager connectionManager = new TimedConnectionManager(
+                Timer.builder("metacache.metaclient.pool.wait")
+                        .description("Time spent waiting to lease a pooled connection to metaclient")
+                        .publishPercentileHistogram()
+                        .register(meterRegistry));
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+        connectionManager.setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.of(connectTimeout))
+                .setSocketTimeout(Timeout.of(responseTimeout))
+                .setValidateAfterInactivity(TimeValue.of(validateAfterInactivity))
+                .build());
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "metaclient").bindTo(meterRegistry);
+        return connectionManager;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient metaclientHttpClient(PoolingHttpClientConnectionManager metaclientConnectionManager) {
+        var builder = HttpClients.custom()
+                .setConnectionManager(metaclientConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(poolWaitTimeout))
+                        .setResponseTimeout(Timeout.of(responseTimeout))
+                        .build())
+                .setKeepAliveStrategy((response, context) -> TimeValue.of(keepAlive))
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(idleEviction));
+        if (!compression) {
+            builder.disableContentCompression();
+        }
+        return builder.build();
+    }
+
+    @Bean
+    public RestTemplate restTemplate(RestTemplateBuilder restTemplateBuilder, CloseableHttpClient metaclientHttpClient) {
+        return restTemplateBuilder
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(metaclientHttpClient))
+                .build();
+    }
+
+    /**
+     * Records how long each caller waits for a pooled connection.
+     */
+    private static class TimedConnectionManager extends PoolingHttpClientConnectionManager {
+        private final Timer waitTimer;
+
+        TimedConnectionManager(Timer waitTimer) {
+            this.waitTimer = waitTimer;
+        }
+
+        @Override
+        public LeaseRequest lease(String id, HttpRoute route, Timeout requestTimeout, Object state) {
+            LeaseRequest leaseRequest = super.lease(id, route, requestTimeout, state);
+            long start = System.nanoTime();
+            return new LeaseRequest() {
+                @Override
+                public ConnectionEndpoint get(Timeout timeout) throws InterruptedException, ExecutionException, TimeoutException {
+                    try {
+                        return leaseRequest.get(timeout);
+                    } finally {
+                        waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    }
+                }
+
+                @Override
+                public boolean cancel() {
+                    return leaseRequest.cancel();
+                }
+            };
+        }
+    }
+}
@@ -1,15 +1,30 @@
 package com.metastore.metacache.config;
 
+import com.metastore.metacache.cache.InvalidationBus;
+import com.metastore.metacache.codec.BinaryValueCodec;
+import com.metastore.metacache.codec.CodecMode;
+import com.metastore.metacache.codec.CodecRedisSerializer;
+import com.metastore.metacache.codec.JsonValueCodec;
+import io.lettuce.core.ReadFrom;
+import io.lettuce.core.cluster.ClusterClientOptions;
+import io.lettuce.core.cluster.ClusterTopologyRefreshOptions;
+import io.lettuce.core.resource.ClientResources;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisClusterConfiguration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
-import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
-import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.List;
 
 @Configuration
 public class RedisConfig {
@@ -20,24 +35,73 @@ public class RedisConfig {
     @Value("${spring.redis.port:6379}")
     private int redisPort;
 
+    @Value("${metacache.redis.codec:migrate}")
+    private CodecMode codecMode;
+
+    @Value("${metacache.redis.mode:standalone}")
+    private RedisMode mode;
+
+    @Value("${metacache.redis.read-from:upstream}")
+    private String readFrom;
+
+    @Value("${metacache.redis.cluster.nodes:}")
+    private List<String> clusterNodes;
+
+    @Value("${metacache.redis.cluster.max-redirects:3}")
+    private int maxRedirects;
+
+    @Value("${metacache.redis.cluster.topology-refresh:PT30S}")
+    private Duration topologyRefresh;
+
+    /**
+     * Uses Boot's client resources, which carry the Micrometer command latency recorder.
+     * Reads go to the nodes selected by {@code metacache.redis.read-from}; writes and
+     * scripts always go to the primary.
+     */
+    @Bean
+    public RedisConnectionFactory redisConnectionFactory(ClientResources clientResources) {
+        LettuceClientConfiguration.LettuceClientConfigurationBuilder client = LettuceClientConfiguration.builder()
+                .clientResources(clientResources)
+                .readFrom(ReadFrom.valueOf(readFrom));
+        if (mode == RedisMode.CLUSTER) {
+            if (clusterNodes.isEmpty()) {
+                throw new IllegalStateException("metacache.redis.cluster.nodes is required in cluster mode");
+            }
+            RedisClusterConfiguration config = new RedisClusterConfiguration(clusterNodes);
+            config.setMaxRedirects(maxRedirects);
+            client.clientOptions(ClusterClientOptions.builder()
+                    .topologyRefreshOptions(ClusterTopologyRefreshOptions.builder()
+                            .enablePeriodicRefresh(topologyRefresh)
+                            .enableAllAdaptiveRefreshTriggers()
+                            .build())
+                    .build());
+            return new LettuceConnectionFactory(config, client.build());
+        }
+        return new LettuceConnectionFactory(new RedisStandaloneConfiguration(redisHost, redisPort), client.build());
+    }
+
     @Bean
-    public RedisConnectionFactory redisConnectionFactory() {
-        RedisStandaloneConfiguration config = new RedisStandaloneConfiguration(redisHost, redisPort);
-        return new LettuceConnectionFactory(config);
+    public CodecRedisSerializer redisValueSerializer(MeterRegistry meterRegistry) {
+        return new CodecRedisSerializer(codecMode, new BinaryValueCodec(), new JsonValueCodec(), meterRegistry);
     }
 
     @Bean
-    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory) {
+    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory,
+                                                       CodecRedisSerializer redisValueSerializer) {
         RedisTemplate<String, Object> template = new RedisTemplate<>();
         template.setConnectionFactory(connectionFactory);
         template.setKeySerializer(new StringRedisSerializer());
-        template.setValueSerializer(new GenericJackson2JsonRedisSerializer());
+        template.setValueSerializer(redisValueSerializer);
         template.afterPropertiesSet();
         return template;
     }
 
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                       InvalidationBus invalidationBus) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(invalidationBus, new ChannelTopic(InvalidationBus.CHANNEL));
+        return container;
     }
 } 
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.metastore.metacache.config;
+
+/**
+ * Redis topology metacache connects to.
+ */
+public enum RedisMode {
+    /**
+     * One primary at {@code spring.redis.host:port}; with a non-primary
+     * {@code metacache.redis.read-from}, its replicas are discovered from the primary.
+     */
+    STANDALONE,
+    /**
+     * Redis Cluster, discovered from {@code metacache.redis.cluster.nodes}. Keys are
+     * sharded by hash slot and {@code metacache.redis.read-from} picks primaries or
+     * replicas per slot.
+     */
+    CLUSTER
+}
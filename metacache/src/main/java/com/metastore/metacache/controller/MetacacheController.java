@@ -1,12 +1,21 @@
 package com.metastore.metacache.controller;
 
+import com.metastore.metacache.model.BulkDeleteRequest;
+import com.metastore.metacache.model.BulkOperationResult;
+import com.metastore.metacache.model.BulkUpdateRequest;
 import com.metastore.metacache.model.Metadata;
 import com.metastore.metacache.model.MetadataResponse;
 import com.metastore.metacache.service.MetacacheService;
 import com.metastore.metacache.exception.MetadataNotFoundException;
+import com.metastore.metacache.exception.WriteBackpressureException;
+import com.metastore.metacache.metrics.CacheMetrics;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -20,33 +29,77 @@ public class MetacacheController {
 
     private static final Logger logger = LoggerFactory.getLogger(MetacacheController.class);
     private final MetacacheService metacacheService;
+    private final CacheMetrics cacheMetrics;
 
     @Autowired
-    public MetacacheController(MetacacheService metacacheService) {
+    public MetacacheController(MetacacheService metacacheService, CacheMetrics cacheMetrics) {
         this.metacacheService = metacacheService;
+        this.cacheMetrics = cacheMetrics;
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<MetadataResponse> getMetadata(@PathVariable UUID id) {
+    public ResponseEntity<MetadataResponse> getMetadata(@PathVariable UUID id,
+                                                        @RequestParam(required = false) List<String> fields) {
         try {
-            MetadataResponse response = metacacheService.getMetadata(id);
+            MetadataResponse response = fields == null || fields.isEmpty()
+                    ? cacheMetrics.record(CacheMetrics.ID, () -> metacacheService.getMetadata(id))
+                    : cacheMetrics.record(CacheMetrics.FIELDS, () -> metacacheService.getMetadataFields(id, fields));
             return ResponseEntity.ok(response);
         } catch (MetadataNotFoundException e) {
             logger.warn("Metadata not found: {}", e.getMessage());
             return ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid field projection: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             logger.error("Error getting metadata: {}", e.getMessage());
             return ResponseEntity.internalServerError().build();
         }
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<MetadataResponse> getMetadataBatch(@RequestBody List<UUID> ids) {
+        try {
+            if (ids == null || ids.isEmpty()) {
+                return ResponseEntity.badRequest().build();
+            }
+
+            MetadataResponse response = cacheMetrics.record(CacheMetrics.BATCH, () -> metacacheService.getMetadataBatch(ids));
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid batch request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            logger.error("Error getting metadata batch: {}", e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
     @GetMapping("/all")
-    public ResponseEntity<MetadataResponse> getAllMetadata() {
+    public ResponseEntity<StreamingResponseBody> getAllMetadata() {
+        StreamingResponseBody body = outputStream -> {
+            long start = System.nanoTime();
+            String source = "ERROR";
+            try {
+                source = metacacheService.streamAllMetadata(outputStream);
+            } catch (Exception e) {
+                logger.error("Error streaming all metadata: {}", e.getMessage());
+                throw e;
+            } finally {
+                cacheMetrics.record(CacheMetrics.ALL, source, System.nanoTime() - start);
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    @GetMapping("/all/page")
+    public ResponseEntity<MetadataResponse> getMetadataPage(@RequestParam(required = false) UUID cursor,
+                                                            @RequestParam(defaultValue = "1000") int limit) {
         try {
-            MetadataResponse response = metacacheService.getAllMetadata();
+            MetadataResponse response = cacheMetrics.record(CacheMetrics.ALL, () -> metacacheService.getMetadataPage(cursor, limit));
             return ResponseEntity.ok(response);
         } catch (Exception e) {
-            logger.error("Error getting all metadata: {}", e.getMessage());
+            logger.error("Error getting metadata page: {}", e.getMessage());
             return ResponseEntity.internalServerError().build();
         }
     }
@@ -77,6 +130,9 @@ public class MetacacheController {
         } catch (IllegalArgumentException e) {
             logger.warn("Invalid update request: {}", e.getMessage());
             return ResponseEntity.badRequest().build();
+        } catch (WriteBackpressureException e) {
+            logger.warn("Rejecting update: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
         } catch (Exception e) {
             logger.error("Error updating metadata: {}", e.getMessage());
             return ResponseEntity.internalServerError().build();
@@ -94,10 +150,43 @@ public class MetacacheController {
         }
     }
 
+    @PostMapping("/bulk/update")
+    public ResponseEntity<BulkOperationResult> bulkUpdate(@RequestBody BulkUpdateRequest request) {
+        try {
+            if (request.getWhere() == null || request.getWhere().isEmpty()
+                    || request.getSet() == null || request.getSet().isEmpty()) {
+                return ResponseEntity.badRequest().build();
+            }
+            return ResponseEntity.ok(metacacheService.bulkUpdate(request));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid bulk update request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            logger.error("Error running bulk update: {}", e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    @PostMapping("/bulk/delete")
+    public ResponseEntity<BulkOperationResult> bulkDelete(@RequestBody BulkDeleteRequest request) {
+        try {
+            if (request.getWhere() == null || request.getWhere().isEmpty()) {
+                return ResponseEntity.badRequest().build();
+            }
+            return ResponseEntity.ok(metacacheService.bulkDelete(request));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid bulk delete request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            logger.error("Error running bulk delete: {}", e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
     @GetMapping("/search")
     public ResponseEntity<MetadataResponse> searchMetadata(@RequestParam String keyword) {
         try {
-            MetadataResponse response = metacacheService.searchMetadata(keyword);
+            MetadataResponse response = cacheMetrics.record(CacheMetrics.SEARCH, () -> metacacheService.searchMetadata(keyword));
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             logger.error("Error searching metadata: {}", e.getMessage());
@@ -108,7 +197,7 @@ public class MetacacheController {
     @GetMapping("/types")
     public ResponseEntity<MetadataResponse> getAllTypes() {
         try {
-            MetadataResponse response = metacacheService.getAllTypes();
+            MetadataResponse response = cacheMetrics.record(CacheMetrics.TYPES, metacacheService::getAllTypes);
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             logger.error("Error getting types: {}", e.getMessage());
@@ -119,7 +208,7 @@ public class MetacacheController {
     @GetMapping("/issuers")
     public ResponseEntity<MetadataResponse> getAllIssuers() {
         try {
-            MetadataResponse response = metacacheService.getAllIssuers();
+            MetadataResponse response = cacheMetrics.record(CacheMetrics.ISSUERS, metacacheService::getAllIssuers);
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             logger.error("Error getting issuers: {}", e.getMessage());
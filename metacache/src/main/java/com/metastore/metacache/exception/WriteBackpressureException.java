@@ -0,0 +1,7 @@
+package com.metastore.metacache.exception;
+
+public class WriteBackpressureException extends RuntimeException {
+    public WriteBackpressureException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,327 @@
+package com.metastore.metacache.index;
+
+import com.metastore.metacache.model.Metadata;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverted trigram index over name, type, issuer and riskRating. Documents get
+ * ascending int ids, so posting lists are append-only sorted int arrays; updates and
+ * deletes tombstone the old document and the index compacts once tombstones dominate.
+ * Matching is case-insensitive substring, the same as metaclient's search.
+ */
+public class NgramIndex {
+    static final int N = 3;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private final Map<UUID, Integer> docIds = new HashMap<>();
+    private final BitSet deleted = new BitSet();
+    private final double compactionThreshold;
+    private Metadata[] docs = new Metadata[1024];
+    private int docCount;
+    private long postingBytes;
+    private long documentBytes;
+    private volatile long estimatedBytes;
+
+    public NgramIndex(double compactionThreshold) {
+        this.compactionThreshold = compactionThreshold;
+    }
+
+    public void put(Metadata metadata) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(metadata.getId());
+            addInternal(metadata);
+            compactIfNeeded();
+            updateEstimatedBytes();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void putAll(Collection<Metadata> metadataList) {
+        lock.writeLock().lock();
+        try {
+            for (Metadata metadata : metadataList) {
+                removeInternal(metadata.getId());
+                addInternal(metadata);
+            }
+            compactIfNeeded();
+            updateEstimatedBytes();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(UUID id) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+            compactIfNeeded();
+            updateEstimatedBytes();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Metadata get(UUID id) {
+        lock.readLock().lock();
+        try {
+            Integer docId = docIds.get(id);
+            return docId != null ? docs[docId] : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the best {@code limit} matches, exact and partial name matches first; only
+     * that many are kept while scanning, so broad keywords are not sorted in full.
+     */
+    public List<Metadata> search(String keyword, int limit) {
+        String needle = keyword.toLowerCase();
+        Comparator<Metadata> order = Comparator
+                .comparingInt((Metadata m) -> nameRank(m, needle))
+                .thenComparing(m -> m.getId().toString());
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
+        PriorityQueue<Metadata> best = new PriorityQueue<>(limit + 1, order.reversed());
+        lock.readLock().lock();
+        try {
+            if (needle.length() < N) {
+                for (int docId = 0; docId < docCount; docId++) {
+                    if (!deleted.get(docId) && matches(docs[docId], needle)) {
+                        offer(best, docs[docId], limit, order);
+                    }
+                }
+            } else {
+                for (int docId : candidates(needle)) {
+                    if (!deleted.get(docId) && matches(docs[docId], needle)) {
+                        offer(best, docs[docId], limit, order);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<Metadata> matches = new ArrayList<>(best);
+        matches.sort(order);
+        return matches;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docIds.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int ngramCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Approximate heap footprint: posting arrays, the hash maps and the documents. Kept
+     * up to date by every write, so reading it takes no lock.
+     */
+    public long estimatedBytes() {
+        return estimatedBytes;
+    }
+
+    private static void offer(PriorityQueue<Metadata> best, Metadata metadata, int limit, Comparator<Metadata> order) {
+        if (best.size() < limit) {
+            best.add(metadata);
+        } else if (order.compare(metadata, best.peek()) < 0) {
+            best.poll();
+            best.add(metadata);
+        }
+    }
+
+    private int[] candidates(String needle) {
+        Set<Long> grams = new HashSet<>();
+        for (int i = 0; i + N <= needle.length(); i++) {
+            grams.add(gram(needle, i));
+        }
+        List<Postings> lists = new ArrayList<>(grams.size());
+        for (long gram : grams) {
+            Postings list = postings.get(gram);
+            if (list == null) {
+                return new int[0];
+            }
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(list -> list.size));
+        int[] result = Arrays.copyOf(lists.get(0).ids, lists.get(0).size);
+        int resultSize = result.length;
+        for (int i = 1; i < lists.size() && resultSize > 0; i++) {
+            resultSize = intersect(result, resultSize, lists.get(i));
+        }
+        return Arrays.copyOf(result, resultSize);
+    }
+
+    private static int intersect(int[] result, int resultSize, Postings other) {
+        int out = 0;
+        int j = 0;
+        for (int i = 0; i < resultSize && j < other.size; i++) {
+            int value = result[i];
+            while (j < other.size && other.ids[j] < value) {
+                j++;
+            }
+            if (j < other.size && other.ids[j] == value) {
+                result[out++] = value;
+            }
+        }
+        return out;
+    }
+
+    private void addInternal(Metadata metadata) {
+        int docId = docCount++;
+        if (docId == docs.length) {
+            docs = Arrays.copyOf(docs, docs.length * 2);
+        }
+        docs[docId] = metadata;
+        docIds.put(metadata.getId(), docId);
+        documentBytes += documentBytes(metadata);
+        Set<Long> grams = new HashSet<>();
+        collectGrams(metadata.getName(), grams);
+        collectGrams(metadata.getType(), grams);
+        collectGrams(metadata.getIssuer(), grams);
+        collectGrams(metadata.getRiskRating(), grams);
+        for (long gram : grams) {
+            Postings list = postings.get(gram);
+            if (list == null) {
+                list = new Postings();
+                postings.put(gram, list);
+                postingBytes += 64 + 4L * list.ids.length;
+            }
+            postingBytes += list.add(docId);
+        }
+    }
+
+    private void removeInternal(UUID id) {
+        Integer docId = docIds.remove(id);
+        if (docId != null) {
+            deleted.set(docId);
+            documentBytes -= documentBytes(docs[docId]);
+            docs[docId] = null;
+        }
+    }
+
+    private void compactIfNeeded() {
+        int tombstones = docCount - docIds.size();
+        if (tombstones < 1024 || tombstones < docCount * compactionThreshold) {
+            return;
+        }
+        List<Metadata> live = new ArrayList<>(docIds.size());
+        for (int docId = 0; docId < docCount; docId++) {
+            if (!deleted.get(docId)) {
+                live.add(docs[docId]);
+            }
+        }
+        postings.clear();
+        docIds.clear();
+        deleted.clear();
+        docs = new Metadata[Math.max(1024, live.size() * 2)];
+        docCount = 0;
+        postingBytes = 0;
+        documentBytes = 0;
+        live.forEach(this::addInternal);
+        for (Postings list : postings.values()) {
+            postingBytes += list.trim();
+        }
+    }
+
+    private void updateEstimatedBytes() {
+        estimatedBytes = 16L + 4L * docs.length + deleted.size() / 8 + 64L * docIds.size() + postingBytes + documentBytes;
+    }
+
+    private static void collectGrams(String value, Set<Long> grams) {
+        if (value == null) {
+            return;
+        }
+        String lower = value.toLowerCase();
+        for (int i = 0; i + N <= lower.length(); i++) {
+            grams.add(gram(lower, i));
+        }
+    }
+
+    private static long gram(String value, int offset) {
+        return ((long) value.charAt(offset) << 32) | ((long) value.charAt(offset + 1) << 16) | value.charAt(offset + 2);
+    }
+
+    private static boolean matches(Metadata metadata, String needle) {
+        return contains(metadata.getName(), needle) || contains(metadata.getType(), needle)
+                || contains(metadata.getIssuer(), needle) || contains(metadata.getRiskRating(), needle);
+    }
+
+    private static boolean contains(String value, String needle) {
+        return value != null && value.toLowerCase().contains(needle);
+    }
+
+    private static int nameRank(Metadata metadata, String needle) {
+        String name = metadata.getName() != null ? metadata.getName().toLowerCase() : null;
+        if (needle.equals(name)) {
+            return 0;
+        }
+        return name != null && name.contains(needle) ? 1 : 2;
+    }
+
+    private static long documentBytes(Metadata metadata) {
+        return 64 + stringBytes(metadata.getName()) + stringBytes(metadata.getType())
+                + stringBytes(metadata.getIssuer()) + stringBytes(metadata.getRiskRating());
+    }
+
+    private static long stringBytes(String value) {
+        return value == null ? 0 : 40 + value.length();
+    }
+
+    private static final class Postings {
+        private int[] ids = new int[4];
+        private int size;
+
+        /**
+         * @return bytes by which the posting array grew
+         */
+        long add(int docId) {
+            long grown = 0;
+            if (size == ids.length) {
+                int capacity = size + (size >> 1) + 1;
+                grown = 4L * (capacity - ids.length);
+                ids = Arrays.copyOf(ids, capacity);
+            }
+            ids[size++] = docId;
+            return grown;
+        }
+
+        /**
+         * @return change in bytes of the posting array
+         */
+        long trim() {
+            long change = 4L * (size - ids.length);
+            ids = Arrays.copyOf(ids, size);
+            return change;
+        }
+    }
+}
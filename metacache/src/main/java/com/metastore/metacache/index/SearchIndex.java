@@ -0,0 +1,232 @@
+package com.metastore.metacache.index;
+
+import com.metastore.metacache.cache.InvalidationListener;
+import com.metastore.metacache.model.Metadata;
+import com.metastore.metacache.model.MetadataPage;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Memory-resident search index that answers searchMetadata without Redis or metaclient.
+ * It is bulk-loaded from metaclient's keyset pages at startup, updated in place by this
+ * replica's writes, and refreshed for writes made on other replicas as their
+ * invalidations arrive.
+ */
+@Component
+public class SearchIndex implements InvalidationListener {
+    private static final Logger logger = LoggerFactory.getLogger(SearchIndex.class);
+    private static final String ID_KEY_PREFIX = "metadata:";
+    private static final int UUID_LENGTH = 36;
+
+    private final RestTemplate restTemplate;
+    private final ExecutorService loader = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "search-index-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean rebuildQueued = new AtomicBoolean();
+    private final Set<UUID> pendingRefresh = ConcurrentHashMap.newKeySet();
+    private final Set<UUID> touchedDuringBuild = new HashSet<>();
+    private final double compactionThreshold;
+    private volatile NgramIndex index;
+    private volatile NgramIndex building;
+    private volatile boolean ready;
+
+    @Value("${metacache.search-index.enabled:true}")
+    private boolean enabled;
+
+    @Value("${metacache.search-index.load-page-size:1000}")
+    private int loadPageSize;
+
+    @Value("${metacache.search-index.refresh-batch-size:500}")
+    private int refreshBatchSize;
+
+    @Value("${metacache.metaclient.base-url:http://metaclient:8081}")
+    private String metaclientBaseUrl;
+
+    public SearchIndex(RestTemplate restTemplate, MeterRegistry meterRegistry,
+                       @Value("${metacache.search-index.compaction-threshold:0.25}") double compactionThreshold) {
+        this.restTemplate = restTemplate;
+        this.compactionThreshold = compactionThreshold;
+        this.index = new NgramIndex(compactionThreshold);
+        Gauge.builder("metacache.search.index.documents", this, searchIndex -> searchIndex.index.size())
+                .register(meterRegistry);
+        Gauge.builder("metacache.search.index.ngrams", this, searchIndex -> searchIndex.index.ngramCount())
+                .register(meterRegistry);
+        Gauge.builder("metacache.search.index.bytes", this, searchIndex -> searchIndex.index.estimatedBytes())
+                .description("Approximate heap footprint of the in-memory search index")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("metacache.search.index.ready", this, searchIndex -> searchIndex.ready ? 1 : 0)
+                .register(meterRegistry);
+    }
+
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    public List<Metadata> search(String keyword, int limit) {
+        return index.search(keyword, limit);
+    }
+
+    public void put(Metadata metadata) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (touchedDuringBuild) {
+            index.put(metadata);
+            if (building != null) {
+                touchedDuringBuild.add(metadata.getId());
+                building.put(metadata);
+            }
+        }
+    }
+
+    public void remove(UUID id) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (touchedDuringBuild) {
+            index.remove(id);
+            if (building != null) {
+                touchedDuringBuild.add(id);
+                building.remove(id);
+            }
+        }
+    }
+
+    /**
+     * Queues entries to be re-read from metaclient, for writes whose new values are not
+     * known locally.
+     */
+    public void refresh(Collection<UUID> ids) {
+        if (enabled) {
+            pendingRefresh.addAll(ids);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (enabled && rebuildQueued.compareAndSet(false, true)) {
+            loader.submit(this::load);
+        }
+    }
+
+    @Override
+    public void onKeyInvalidated(String key) {
+        if (!enabled || !key.startsWith(ID_KEY_PREFIX) || key.length() != ID_KEY_PREFIX.length() + UUID_LENGTH) {
+            return;
+        }
+        try {
+            pendingRefresh.add(UUID.fromString(key.substring(ID_KEY_PREFIX.length())));
+        } catch (IllegalArgumentException e) {
+            // Not a per-ID key.
+        }
+    }
+
+    @Override
+    public void onAllInvalidated() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${metacache.search-index.refresh-interval:PT0.2S}")
+    public void refreshPending() {
+        if (pendingRefresh.isEmpty()) {
+            return;
+        }
+        List<UUID> ids = new ArrayList<>(Math.min(pendingRefresh.size(), refreshBatchSize));
+        Iterator<UUID> iterator = pendingRefresh.iterator();
+        while (iterator.hasNext() && ids.size() < refreshBatchSize) {
+            ids.add(iterator.next());
+            iterator.remove();
+        }
+        try {
+            ResponseEntity<List<Metadata>> response = restTemplate.exchange(
+                    metaclientBaseUrl + "/metadata/batch",
+                    HttpMethod.POST,
+                    new HttpEntity<>(ids),
+                    new ParameterizedTypeReference<>() {
+                    }
+            );
+            List<Metadata> found = response.getBody() != null ? response.getBody() : List.of();
+            Set<UUID> missing = new HashSet<>(ids);
+            for (Metadata metadata : found) {
+                missing.remove(metadata.getId());
+                put(metadata);
+            }
+            missing.forEach(this::remove);
+        } catch (Exception e) {
+            logger.error("Error refreshing search index entries: {}", e.getMessage());
+            pendingRefresh.addAll(ids);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        loader.shutdownNow();
+    }
+
+    private void load() {
+        rebuildQueued.set(false);
+        NgramIndex fresh = new NgramIndex(compactionThreshold);
+        synchronized (touchedDuringBuild) {
+            touchedDuringBuild.clear();
+            building = fresh;
+        }
+        try {
+            UUID cursor = null;
+            do {
+                MetadataPage page = restTemplate.getForObject(metaclientBaseUrl + "/metadata/page?limit={limit}&after={after}",
+                        MetadataPage.class, loadPageSize, cursor != null ? cursor : "");
+                if (page == null) {
+                    throw new IllegalStateException("Empty page response from metaclient");
+                }
+                synchronized (touchedDuringBuild) {
+                    fresh.putAll(page.getItems().stream()
+                            .filter(metadata -> !touchedDuringBuild.contains(metadata.getId()))
+                            .toList());
+                }
+                cursor = page.getNextCursor();
+            } while (cursor != null);
+
+            synchronized (touchedDuringBuild) {
+                index = fresh;
+                building = null;
+                touchedDuringBuild.clear();
+            }
+            ready = true;
+            logger.info("Search index loaded with {} documents", fresh.size());
+        } catch (Exception e) {
+            synchronized (touchedDuringBuild) {
+                building = null;
+                touchedDuringBuild.clear();
+            }
+            logger.error("Error loading search index, searches fall back to Redis and metaclient: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.metastore.metacache.metrics;
+
+import com.metastore.metacache.exception.MetadataNotFoundException;
+import com.metastore.metacache.model.MetadataResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Counts reads by operation and by the tier that answered them, and times them, in place
+ * of the per-response {@code timeTakenMs} and {@code source}. {@code LOCAL}, {@code CACHE}
+ * and {@code INDEX} answers are hits, {@code DB} answers are misses.
+ */
+@Component
+public class CacheMetrics {
+    public static final String ID = "id";
+    public static final String FIELDS = "fields";
+    public static final String BATCH = "batch";
+    public static final String ALL = "all";
+    public static final String SEARCH = "search";
+    public static final String TYPES = "types";
+    public static final String ISSUERS = "issuers";
+
+    private static final String NOT_FOUND = "NOT_FOUND";
+    private static final String ERROR = "ERROR";
+
+    private final MeterRegistry meterRegistry;
+
+    public CacheMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public MetadataResponse record(String operation, Supplier<MetadataResponse> read) {
+        long start = System.nanoTime();
+        String source = ERROR;
+        try {
+            MetadataResponse response = read.get();
+            source = response.getSource();
+            return response;
+        } catch (MetadataNotFoundException e) {
+            source = NOT_FOUND;
+            throw e;
+        } finally {
+            record(operation, source, System.nanoTime() - start);
+        }
+    }
+
+    public void record(String operation, String source, long elapsedNanos) {
+        Timer.builder("metacache.lookup.latency")
+                .description("Latency of cache reads by the tier that answered them")
+                .tag("operation", operation)
+                .tag("source", source.toLowerCase(Locale.ROOT))
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+        Counter.builder("metacache.lookups")
+                .description("Cache reads by result")
+                .tag("operation", operation)
+                .tag("result", result(source))
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private static String result(String source) {
+        return switch (source) {
+            case "LOCAL", "CACHE", "INDEX" -> "hit";
+            case "DB" -> "miss";
+            case NOT_FOUND -> "not_found";
+            default -> "error";
+        };
+    }
+}
@@ -0,0 +1,153 @@
+package com.metastore.metacache.metrics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Capacity gauges for the Redis keyspace: the exact key count and memory use, and per key
+ * class an estimated key count and average value size, both extrapolated from a sample
+ * of RANDOMKEY and MEMORY USAGE so that the keyspace is never scanned.
+ */
+@Component
+public class RedisKeyspaceMetrics {
+    private static final Logger logger = LoggerFactory.getLogger(RedisKeyspaceMetrics.class);
+    private static final Map<String, String> CLASS_PREFIXES = Map.of(
+            "metadata:record:", "id",
+            "metadata:all:", "all",
+            "metadata:types:", "dictionary",
+            "metadata:issuers:", "dictionary",
+            "metadata:search:", "search",
+            "metadata:missing:", "missing");
+    /**
+     * One key per call, so that sampled keys may live in different cluster slots. A key
+     * that expires between RANDOMKEY and MEMORY USAGE counts as zero bytes.
+     */
+    private static final byte[] MEMORY_USAGE = "return redis.call('MEMORY', 'USAGE', KEYS[1]) or 0"
+            .getBytes(StandardCharsets.UTF_8);
+    private static final List<String> CLASSES = List.of("id", "all", "dictionary", "search", "missing", "other");
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final Map<String, Double> estimatedKeys = new ConcurrentHashMap<>();
+    private final Map<String, Double> averageBytes = new ConcurrentHashMap<>();
+    private volatile double totalKeys;
+    private volatile double usedMemory;
+
+    @Value("${metacache.metrics.keyspace.sample-size:200}")
+    private int sampleSize;
+
+    public RedisKeyspaceMetrics(StringRedisTemplate stringRedisTemplate, MeterRegistry meterRegistry) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        Gauge.builder("metacache.redis.dbsize", this, metrics -> metrics.totalKeys)
+                .description("Number of keys in the Redis database")
+                .register(meterRegistry);
+        Gauge.builder("metacache.redis.memory.used", this, metrics -> metrics.usedMemory)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        for (String keyClass : CLASSES) {
+            Gauge.builder("metacache.redis.keys", estimatedKeys, keys -> keys.getOrDefault(keyClass, 0.0))
+                    .description("Estimated number of keys, from a random sample")
+                    .tag("class", keyClass)
+                    .register(meterRegistry);
+            Gauge.builder("metacache.redis.value.size", averageBytes, sizes -> sizes.getOrDefault(keyClass, 0.0))
+                    .description("Average memory per key, from a random sample")
+                    .baseUnit("bytes")
+                    .tag("class", keyClass)
+                    .register(meterRegistry);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${metacache.metrics.keyspace.interval:PT1M}", initialDelayString = "PT10S")
+    public void sample() {
+        try {
+            Long dbSize = stringRedisTemplate.execute((RedisCallback<Long>) connection -> connection.serverCommands().dbSize());
+            Properties memory = stringRedisTemplate.execute((RedisCallback<Properties>) connection ->
+                    connection.serverCommands().info("memory"));
+            totalKeys = dbSize != null ? dbSize : 0;
+            if (memory != null) {
+                usedMemory = usedMemory(memory);
+            }
+            if (totalKeys == 0) {
+                estimatedKeys.clear();
+                averageBytes.clear();
+                return;
+            }
+
+            Set<String> keys = new LinkedHashSet<>();
+            for (Object key : stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (int i = 0; i < sampleSize; i++) {
+                    connection.keyCommands().randomKey();
+                }
+                return null;
+            })) {
+                if (key != null) {
+                    keys.add(key.toString());
+                }
+            }
+            List<String> sampled = new ArrayList<>(keys);
+            List<Object> sizes = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (String key : sampled) {
+                    connection.scriptingCommands().eval(MEMORY_USAGE, ReturnType.INTEGER, 1, key.getBytes(StandardCharsets.UTF_8));
+                }
+                return null;
+            });
+
+            Map<String, Integer> counts = new HashMap<>();
+            Map<String, Long> bytes = new HashMap<>();
+            for (int i = 0; i < sampled.size(); i++) {
+                String keyClass = classify(sampled.get(i));
+                counts.merge(keyClass, 1, Integer::sum);
+                if (sizes.get(i) instanceof Number size) {
+                    bytes.merge(keyClass, size.longValue(), Long::sum);
+                }
+            }
+            // RANDOMKEY draws with replacement; distinct keys stand in for the draws.
+            for (String keyClass : CLASSES) {
+                int count = counts.getOrDefault(keyClass, 0);
+                estimatedKeys.put(keyClass, totalKeys * count / sampled.size());
+                averageBytes.put(keyClass, count > 0 ? (double) bytes.getOrDefault(keyClass, 0L) / count : 0.0);
+            }
+        } catch (Exception e) {
+            logger.warn("Error sampling Redis keyspace: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * In cluster mode INFO is collected from every node, with keys prefixed by the node.
+     */
+    private static double usedMemory(Properties memory) {
+        double total = 0;
+        for (String name : memory.stringPropertyNames()) {
+            if (name.equals("used_memory") || name.endsWith(".used_memory")) {
+                total += Double.parseDouble(memory.getProperty(name));
+            }
+        }
+        return total;
+    }
+
+    private static String classify(String key) {
+        for (Map.Entry<String, String> prefix : CLASS_PREFIXES.entrySet()) {
+            if (key.startsWith(prefix.getKey())) {
+                return prefix.getValue();
+            }
+        }
+        return "other";
+    }
+}
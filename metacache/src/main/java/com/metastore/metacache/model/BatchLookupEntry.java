@@ -0,0 +1,20 @@
+package com.metastore.metacache.model;
+
+import lombok.Data;
+import java.util.UUID;
+
+@Data
+public class BatchLookupEntry {
+    private UUID id;
+    private String source;
+    private Metadata metadata;
+
+    public BatchLookupEntry() {
+    }
+
+    public BatchLookupEntry(UUID id, String source, Metadata metadata) {
+        this.id = id;
+        this.source = source;
+        this.metadata = metadata;
+    }
+}
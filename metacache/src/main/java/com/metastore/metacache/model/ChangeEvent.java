@@ -0,0 +1,35 @@
+package com.metastore.metacache.model;
+
+import lombok.Data;
+import java.util.UUID;
+
+@Data
+public class ChangeEvent {
+    public static final String CREATE = "CREATE";
+    public static final String UPDATE = "UPDATE";
+    public static final String DELETE = "DELETE";
+    /** Many records were written at once; rebuild instead of applying rows. */
+    public static final String RELOAD = "RELOAD";
+
+    private long sequence;
+    private UUID id;
+    private String operation;
+    private String source;
+    private Metadata before;
+    private Metadata after;
+    private long createdAt;
+
+    public ChangeEvent() {
+    }
+
+    public ChangeEvent(long sequence, UUID id, String operation, String source, Metadata before, Metadata after,
+                       long createdAt) {
+        this.sequence = sequence;
+        this.id = id;
+        this.operation = operation;
+        this.source = source;
+        this.before = before;
+        this.after = after;
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,20 @@
+package com.metastore.metacache.model;
+
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class ChangeFeedPage {
+    private List<ChangeEvent> changes;
+    private Long oldestSequence;
+    private Long latestSequence;
+
+    public ChangeFeedPage() {
+    }
+
+    public ChangeFeedPage(List<ChangeEvent> changes, Long oldestSequence, Long latestSequence) {
+        this.changes = changes;
+        this.oldestSequence = oldestSequence;
+        this.latestSequence = latestSequence;
+    }
+}
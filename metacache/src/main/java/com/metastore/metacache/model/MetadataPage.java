@@ -0,0 +1,19 @@
+package com.metastore.metacache.model;
+
+import lombok.Data;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+public class MetadataPage {
+    private List<Metadata> items;
+    private UUID nextCursor;
+
+    public MetadataPage() {
+    }
+
+    public MetadataPage(List<Metadata> items, UUID nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,19 @@
+package com.metastore.metacache.model;
+
+import lombok.Data;
+import java.util.Map;
+import java.util.UUID;
+
+@Data
+public class MetadataUpdate {
+    private UUID id;
+    private Map<String, Object> updates;
+
+    public MetadataUpdate() {
+    }
+
+    public MetadataUpdate(UUID id, Map<String, Object> updates) {
+        this.id = id;
+        this.updates = updates;
+    }
+}
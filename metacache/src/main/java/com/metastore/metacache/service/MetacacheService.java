@@ -1,84 +1,197 @@
 package com.metastore.metacache.service;
 
+import com.metastore.metacache.cache.InvalidationBus;
+import com.metastore.metacache.changes.ChangeFeedConsumer;
+import com.metastore.metacache.cache.MetadataIdIndex;
+import com.metastore.metacache.cache.NearCache;
+import com.metastore.metacache.cache.SearchNamespace;
+import com.metastore.metacache.cache.DictionaryReconciler;
+import com.metastore.metacache.cache.IdBloomFilter;
+import com.metastore.metacache.cache.ReferenceCountedDictionary;
+import com.metastore.metacache.cache.RefreshAhead;
+import com.metastore.metacache.cache.SingleFlight;
+import com.metastore.metacache.cache.TtlPolicy;
+import com.metastore.metacache.cache.TtlPolicy.KeyClass;
+import com.metastore.metacache.codec.MetadataRecords;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.metastore.metacache.exception.MetadataNotFoundException;
+import com.metastore.metacache.index.SearchIndex;
+import com.metastore.metacache.model.BatchLookupEntry;
+import com.metastore.metacache.model.BulkDeleteRequest;
+import com.metastore.metacache.model.BulkOperationResult;
+import com.metastore.metacache.model.BulkUpdateRequest;
 import com.metastore.metacache.model.Metadata;
+import com.metastore.metacache.model.MetadataPage;
 import com.metastore.metacache.model.MetadataResponse;
 import com.metastore.metacache.model.CacheInvalidationType;
+import com.metastore.metacache.warmup.SearchKeywordTracker;
+import com.metastore.metacache.writebehind.WriteBehindQueue;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
 @Service
 public class MetacacheService {
     private static final Logger logger = LoggerFactory.getLogger(MetacacheService.class);
     private static final String KEY_PREFIX = "metadata:";
-    private static final String ALL_METADATA_KEY = "metadata:all";
-    private static final String TYPES_KEY = "metadata:types";
-    private static final String ISSUERS_KEY = "metadata:issuers";
+    private static final String RECORD_KEY_PREFIX = "metadata:record:";
     private static final String SEARCH_KEY_PREFIX = "metadata:search:";
-    private static final long CACHE_TTL_HOURS = 24;
-    private static final String METACLIENT_BASE_URL = "http://metaclient:8081";
+    private static final String MISSING_KEY_PREFIX = "metadata:missing:";
+    /**
+     * Search entries hold ID lists under their own suffix, so nodes that cached full
+     * record lists never read them during a rolling upgrade.
+     */
+    private static final String SEARCH_IDS_SUFFIX = "ids:";
+    private static final List<String> UPDATABLE_FIELDS = List.of("name", "type", "issuer", "riskRating");
+
+    /**
+     * Rewrites the given fields of a cached record, but only if the record is cached;
+     * a partial hash would otherwise read as a complete one.
+     */
+    private static final RedisScript<Long> UPDATE_RECORD_FIELDS = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return 0 end "
+                    + "redis.call('HSET', KEYS[1], unpack(ARGV)) "
+                    + "return 1",
+            Long.class);
 
     private final RedisTemplate<String, Object> redisTemplate;
+    private final StringRedisTemplate stringRedisTemplate;
     private final RestTemplate restTemplate;
+    private final NearCache nearCache;
+    private final InvalidationBus invalidationBus;
+    private final SearchNamespace searchNamespace;
+    private final MetadataIdIndex idIndex;
+    private final SingleFlight singleFlight;
+    private final ObjectMapper objectMapper;
+    private final SearchIndex searchIndex;
+    private final ReferenceCountedDictionary typesDictionary;
+    private final ReferenceCountedDictionary issuersDictionary;
+    private final DictionaryReconciler dictionaryReconciler;
+    private final WriteBehindQueue writeBehindQueue;
+    private final ChangeFeedConsumer changeFeed;
+    private final SearchKeywordTracker keywordTracker;
+    private final TtlPolicy ttlPolicy;
+    private final RefreshAhead refreshAhead;
+    private final IdBloomFilter idBloomFilter;
+
+    @Value("${metacache.metaclient.base-url:http://metaclient:8081}")
+    private String metaclientBaseUrl;
+
+    @Value("${metacache.all.page-size:1000}")
+    private int allPageSize;
+
+    @Value("${metacache.search.result-limit:1000}")
+    private int searchResultLimit;
+
+    @Value("${metacache.batch.max-size:5000}")
+    private int maxBatchSize;
+
+    @Value("${metacache.near-cache.ttl.id:PT30S}")
+    private Duration nearCacheIdTtl;
+
+    @Value("${metacache.near-cache.ttl.dictionary:PT60S}")
+    private Duration nearCacheDictionaryTtl;
+
+    @Value("${metacache.near-cache.ttl.search:PT10S}")
+    private Duration nearCacheSearchTtl;
 
     @Autowired
-    public MetacacheService(RedisTemplate<String, Object> redisTemplate, RestTemplate restTemplate) {
+    public MetacacheService(RedisTemplate<String, Object> redisTemplate, StringRedisTemplate stringRedisTemplate,
+                            RestTemplate restTemplate,
+                            NearCache nearCache, InvalidationBus invalidationBus,
+                            SearchNamespace searchNamespace,
+                            MetadataIdIndex idIndex,
+                            SingleFlight singleFlight, ObjectMapper objectMapper, SearchIndex searchIndex,
+                            @Qualifier("typesDictionary") ReferenceCountedDictionary typesDictionary,
+                            @Qualifier("issuersDictionary") ReferenceCountedDictionary issuersDictionary,
+                            DictionaryReconciler dictionaryReconciler, WriteBehindQueue writeBehindQueue,
+                            ChangeFeedConsumer changeFeed, SearchKeywordTracker keywordTracker,
+                            TtlPolicy ttlPolicy, RefreshAhead refreshAhead, IdBloomFilter idBloomFilter) {
         this.redisTemplate = redisTemplate;
+        this.stringRedisTemplate = stringRedisTemplate;
         this.restTemplate = restTemplate;
+        this.nearCache = nearCache;
+        this.invalidationBus = invalidationBus;
+        this.searchNamespace = searchNamespace;
+        this.idIndex = idIndex;
+        this.singleFlight = singleFlight;
+        this.objectMapper = objectMapper;
+        this.searchIndex = searchIndex;
+        this.typesDictionary = typesDictionary;
+        this.issuersDictionary = issuersDictionary;
+        this.dictionaryReconciler = dictionaryReconciler;
+        this.writeBehindQueue = writeBehindQueue;
+        this.changeFeed = changeFeed;
+        this.keywordTracker = keywordTracker;
+        this.ttlPolicy = ttlPolicy;
+        this.refreshAhead = refreshAhead;
+        this.idBloomFilter = idBloomFilter;
     }
 
     public MetadataResponse getMetadata(UUID id) {
         Instant start = Instant.now();
         String key = KEY_PREFIX + id;
+        requireMightExist(id);
 
-        Object cachedData = redisTemplate.opsForValue().get(key);
+        if (nearCache.get(key) instanceof Metadata localData) {
+            Duration timeTaken = Duration.between(start, Instant.now());
+            return new MetadataResponse(localData, timeTaken, "LOCAL");
+        }
 
-        if (cachedData instanceof Map) {
-            @SuppressWarnings("unchecked")
-            Map<String, Object> map = (Map<String, Object>) cachedData;
+        Metadata cachedData = readRecords(List.of(id)).get(0);
+        if (cachedData != null) {
             Duration timeTaken = Duration.between(start, Instant.now());
-            Metadata metadata = new Metadata();
-            metadata.setId(UUID.fromString(map.get("id").toString()));
-            metadata.setName((String) map.get("name"));
-            metadata.setType((String) map.get("type"));
-            metadata.setIssuer((String) map.get("issuer"));
-            metadata.setRiskRating((String) map.get("riskRating"));
-            return new MetadataResponse(metadata, timeTaken, "CACHE");
+            nearCache.put(key, cachedData, nearCacheIdTtl);
+            return new MetadataResponse(cachedData, timeTaken, "CACHE");
+        }
+        if (Boolean.TRUE.equals(stringRedisTemplate.hasKey(MISSING_KEY_PREFIX + id))) {
+            throw new MetadataNotFoundException("Metadata with ID " + id + " not found");
         }
 
         try {
-            String url = METACLIENT_BASE_URL + "/metadata/" + id;
-            ResponseEntity<Metadata> response = restTemplate.exchange(
-                    url,
-                    HttpMethod.GET,
-                    null,
-                    Metadata.class
-            );
-
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                Metadata metadata = response.getBody();
-                Duration timeTaken = Duration.between(start, Instant.now());
-                redisTemplate.opsForValue().set(key, metadata, CACHE_TTL_HOURS, TimeUnit.HOURS);
-                return new MetadataResponse(metadata, timeTaken, "DB");
-            }
-            throw new RuntimeException("Invalid response format from database");
+            Metadata metadata = singleFlight.execute(key,
+                    () -> loadMetadata(id),
+                    () -> readRecord(id));
+            Duration timeTaken = Duration.between(start, Instant.now());
+            nearCache.put(key, metadata, nearCacheIdTtl);
+            return new MetadataResponse(metadata, timeTaken, "DB");
         } catch (org.springframework.web.client.HttpClientErrorException.NotFound e) {
+            cacheMissing(id);
             throw new MetadataNotFoundException("Metadata with ID " + id + " not found");
         } catch (Exception e) {
             if (e instanceof MetadataNotFoundException) {
@@ -88,44 +201,179 @@ public class MetacacheService {
         }
     }
 
-    public MetadataResponse getAllMetadata() {
+    /**
+     * Returns only the requested fields, reading just those hash fields from Redis.
+     */
+    public MetadataResponse getMetadataFields(UUID id, List<String> fields) {
         Instant start = Instant.now();
+        List<String> projection = fields.stream().distinct().toList();
+        for (String field : projection) {
+            if (!MetadataRecords.FIELDS.contains(field)) {
+                throw new IllegalArgumentException("Unknown field: " + field);
+            }
+        }
+        requireMightExist(id);
 
-        Object cachedData = redisTemplate.opsForValue().get(ALL_METADATA_KEY);
-        if (cachedData instanceof List) {
-            @SuppressWarnings("unchecked")
-            List<Metadata> metadata = (List<Metadata>) cachedData;
+        if (nearCache.get(KEY_PREFIX + id) instanceof Metadata localData) {
             Duration timeTaken = Duration.between(start, Instant.now());
-            return new MetadataResponse(metadata, timeTaken, "CACHE");
+            return new MetadataResponse(project(localData, projection), timeTaken, "LOCAL");
+        }
+
+        List<String> hashFields = new ArrayList<>(projection.size() + 1);
+        hashFields.add("id");
+        hashFields.addAll(projection);
+        List<String> values = stringRedisTemplate.<String, String>opsForHash().multiGet(RECORD_KEY_PREFIX + id, hashFields);
+        if (values.get(0) != null) {
+            Map<String, Object> data = new LinkedHashMap<>();
+            for (int i = 0; i < projection.size(); i++) {
+                data.put(projection.get(i), values.get(i + 1));
+            }
+            Duration timeTaken = Duration.between(start, Instant.now());
+            return new MetadataResponse(data, timeTaken, "CACHE");
+        }
+
+        MetadataResponse response = getMetadata(id);
+        Duration timeTaken = Duration.between(start, Instant.now());
+        return new MetadataResponse(project((Metadata) response.getData(), projection), timeTaken, response.getSource());
+    }
+
+    public MetadataResponse getMetadataBatch(List<UUID> ids) {
+        Instant start = Instant.now();
+        List<UUID> uniqueIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        if (uniqueIds.size() > maxBatchSize) {
+            throw new IllegalArgumentException("Batch size " + uniqueIds.size() + " exceeds limit of " + maxBatchSize);
+        }
+
+        Map<UUID, BatchLookupEntry> entries = new HashMap<>();
+        List<UUID> remaining = new ArrayList<>();
+        for (UUID id : uniqueIds) {
+            if (!idBloomFilter.mightContain(id)) {
+                continue;
+            }
+            if (nearCache.get(KEY_PREFIX + id) instanceof Metadata localData) {
+                entries.put(id, new BatchLookupEntry(id, "LOCAL", localData));
+            } else {
+                remaining.add(id);
+            }
         }
 
         try {
-            ResponseEntity<List<Metadata>> response = restTemplate.exchange(
-                    METACLIENT_BASE_URL + "/metadata/all",
-                    HttpMethod.GET,
-                    null,
-                    new ParameterizedTypeReference<>() {
+            List<UUID> missing = new ArrayList<>();
+            if (!remaining.isEmpty()) {
+                List<Metadata> cachedData = readRecords(remaining);
+                for (int i = 0; i < remaining.size(); i++) {
+                    UUID id = remaining.get(i);
+                    Metadata metadata = cachedData.get(i);
+                    if (metadata != null) {
+                        entries.put(id, new BatchLookupEntry(id, "CACHE", metadata));
+                        nearCache.put(KEY_PREFIX + id, metadata, nearCacheIdTtl);
+                    } else {
+                        missing.add(id);
                     }
-            );
+                }
+            }
 
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                List<Metadata> metadata = response.getBody();
-                Duration timeTaken = Duration.between(start, Instant.now());
-                redisTemplate.opsForValue().set(ALL_METADATA_KEY, metadata, CACHE_TTL_HOURS, TimeUnit.HOURS);
-                metadata.forEach(this::saveToCache);
-                return new MetadataResponse(metadata, timeTaken, "DB");
+            if (!missing.isEmpty()) {
+                List<Metadata> loaded = loadMetadataBatch(missing);
+                populateCache(loaded);
+                for (Metadata metadata : loaded) {
+                    entries.put(metadata.getId(), new BatchLookupEntry(metadata.getId(), "DB", metadata));
+                    nearCache.put(KEY_PREFIX + metadata.getId(), metadata, nearCacheIdTtl);
+                }
             }
-            throw new RuntimeException("Invalid response format from database");
+
+            List<BatchLookupEntry> results = uniqueIds.stream()
+                    .map(id -> entries.getOrDefault(id, new BatchLookupEntry(id, "NOT_FOUND", null)))
+                    .toList();
+            Duration timeTaken = Duration.between(start, Instant.now());
+            return new MetadataResponse(results, timeTaken, missing.isEmpty() ? "CACHE" : "DB");
+        } catch (Exception e) {
+            logger.error("Error fetching metadata batch: {}", e.getMessage());
+            throw new RuntimeException("Failed to fetch metadata batch", e);
+        }
+    }
+
+    /**
+     * @return the response source, as for a single page
+     */
+    public String streamAllMetadata(OutputStream outputStream) throws IOException {
+        Instant start = Instant.now();
+        String source = "CACHE";
+
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream);
+        generator.writeStartObject();
+        generator.writeArrayFieldStart("data");
+        UUID cursor = null;
+        do {
+            MetadataResponse response = getMetadataPage(cursor, allPageSize);
+            MetadataPage page = (MetadataPage) response.getData();
+            for (Metadata metadata : page.getItems()) {
+                generator.writeObject(metadata);
+            }
+            generator.flush();
+            if ("DB".equals(response.getSource())) {
+                source = "DB";
+            }
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        generator.writeEndArray();
+        generator.writeNumberField("timeTakenMs", Duration.between(start, Instant.now()).toNanos() / 1_000_000.0);
+        generator.writeStringField("source", source);
+        generator.writeEndObject();
+        generator.flush();
+        return source;
+    }
+
+    /**
+     * Reads a keyset page of IDs from the ID index and materializes it from the per-ID
+     * records with one pipelined read; records that have expired are fetched from
+     * metaclient in a single batch.
+     */
+    public MetadataResponse getMetadataPage(UUID cursor, int limit) {
+        Instant start = Instant.now();
+        int pageSize = Math.max(1, Math.min(limit, maxBatchSize));
+        try {
+            boolean built = ensureIdIndex();
+            List<UUID> ids = idIndex.page(cursor, pageSize);
+            List<Metadata> records = readRecords(ids);
+
+            List<UUID> missing = new ArrayList<>();
+            for (int i = 0; i < ids.size(); i++) {
+                if (records.get(i) == null) {
+                    missing.add(ids.get(i));
+                }
+            }
+            List<Metadata> items = records;
+            if (!missing.isEmpty()) {
+                List<Metadata> loaded = loadMetadataBatch(missing);
+                populateCache(loaded);
+                Map<UUID, Metadata> loadedById = new HashMap<>();
+                loaded.forEach(metadata -> loadedById.put(metadata.getId(), metadata));
+                List<UUID> deleted = missing.stream().filter(id -> !loadedById.containsKey(id)).toList();
+                idIndex.removeAll(deleted);
+                items = new ArrayList<>(ids.size());
+                for (int i = 0; i < ids.size(); i++) {
+                    Metadata metadata = records.get(i) != null ? records.get(i) : loadedById.get(ids.get(i));
+                    if (metadata != null) {
+                        items.add(metadata);
+                    }
+                }
+            }
+
+            UUID nextCursor = ids.size() == pageSize ? ids.get(ids.size() - 1) : null;
+            Duration timeTaken = Duration.between(start, Instant.now());
+            return new MetadataResponse(new MetadataPage(items, nextCursor), timeTaken,
+                    built || !missing.isEmpty() ? "DB" : "CACHE");
         } catch (Exception e) {
-            logger.error("Error fetching all metadata: {}", e.getMessage());
-            throw new RuntimeException("Failed to fetch all metadata", e);
+            logger.error("Error fetching metadata page: {}", e.getMessage());
+            throw new RuntimeException("Failed to fetch metadata page", e);
         }
     }
 
     public List<Metadata> createMetadata(List<Metadata> metadataList) {
         try {
             ResponseEntity<List<Metadata>> response = restTemplate.exchange(
-                    METACLIENT_BASE_URL + "/metadata",
+                    metaclientBaseUrl + "/metadata",
                     HttpMethod.POST,
                     new HttpEntity<>(metadataList),
                     new ParameterizedTypeReference<>() {
@@ -134,8 +382,16 @@ public class MetacacheService {
 
             if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
                 List<Metadata> createdMetadata = response.getBody();
-                createdMetadata.forEach(this::saveToCache);
-                invalidateCaches(null, CacheInvalidationType.ALL);
+                createdMetadata.forEach(metadata -> idBloomFilter.add(metadata.getId()));
+                populateCache(createdMetadata);
+                // Per-key messages let other replicas add the new IDs to their Bloom filters.
+                invalidationBus.invalidateKeys(createdMetadata.stream().map(metadata -> KEY_PREFIX + metadata.getId()).toList());
+                createdMetadata.forEach(searchIndex::put);
+                idIndex.addAll(createdMetadata.stream().map(Metadata::getId).toList());
+                updateDictionariesOnWrite(dictionary -> dictionary.recordCreated(createdMetadata));
+                // The ID index and dictionaries are maintained in place, so only searches go stale.
+                searchNamespace.advance();
+                invalidationBus.invalidatePrefix(SEARCH_KEY_PREFIX);
                 return createdMetadata;
             }
             throw new RuntimeException("Invalid response format from database");
@@ -146,41 +402,30 @@ public class MetacacheService {
     }
 
     public Metadata updateMetadata(UUID id, Map<String, Object> updates) {
+        if (writeBehindQueue.isEnabled()) {
+            return updateMetadataWriteBehind(id, updates);
+        }
         try {
-            String key = KEY_PREFIX + id;
-            Object cachedData = redisTemplate.opsForValue().get(key);
-            
-            if (cachedData == null) {
-                try {
-                    ResponseEntity<Metadata> getResponse = restTemplate.exchange(
-                            METACLIENT_BASE_URL + "/metadata/" + id,
-                            HttpMethod.GET,
-                            null,
-                            Metadata.class
-                    );
-                    
-                    if (!getResponse.getStatusCode().is2xxSuccessful() || getResponse.getBody() == null) {
-                        throw new MetadataNotFoundException("Metadata with ID " + id + " not found");
-                    }
-                } catch (Exception e) {
-                    throw new MetadataNotFoundException("Metadata with ID " + id + " not found");
-                }
-            }
+            Metadata before = readCurrent(id);
 
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.APPLICATION_JSON);
             HttpEntity<Map<String, Object>> requestEntity = new HttpEntity<>(updates, headers);
             
             ResponseEntity<Metadata> response = restTemplate.exchange(
-                    METACLIENT_BASE_URL + "/metadata/" + id,
+                    metaclientBaseUrl + "/metadata/{id}",
                     HttpMethod.PUT,
                     requestEntity,
-                    Metadata.class
+                    Metadata.class,
+                    id
             );
 
             if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
                 Metadata updatedMetadata = response.getBody();
-                saveToCache(updatedMetadata);
+                updateRecordFields(updatedMetadata, updates.keySet());
+                searchIndex.put(updatedMetadata);
+                Metadata previous = before;
+                updateDictionariesOnWrite(dictionary -> dictionary.recordChange(previous, updatedMetadata));
                 invalidateCaches(id, CacheInvalidationType.SPECIFIC_ID);
                 return updatedMetadata;
             }
@@ -193,9 +438,81 @@ public class MetacacheService {
         }
     }
 
+    /**
+     * Applies the update to Redis and queues it for metaclient instead of writing through.
+     * The caller is answered once the update is in the write-behind stream.
+     */
+    private Metadata updateMetadataWriteBehind(UUID id, Map<String, Object> updates) {
+        Map<String, String> changed = new LinkedHashMap<>();
+        for (String field : UPDATABLE_FIELDS) {
+            if (updates.get(field) instanceof String value && !value.trim().isEmpty()) {
+                changed.put(field, value);
+            }
+        }
+        if (changed.isEmpty()) {
+            throw new IllegalArgumentException("No valid updates provided");
+        }
+
+        Metadata before = readCurrent(id);
+        Metadata after = MetadataRecords.fromRecord(MetadataRecords.toRecord(before));
+        changed.forEach((field, value) -> {
+            switch (field) {
+                case "name" -> after.setName(value);
+                case "type" -> after.setType(value);
+                case "issuer" -> after.setIssuer(value);
+                default -> after.setRiskRating(value);
+            }
+        });
+
+        writeBehindQueue.append(id, changed, RECORD_KEY_PREFIX + id, MetadataRecords.toRecord(after), ttlPolicy.ttl(KeyClass.ID));
+        searchIndex.put(after);
+        updateDictionaries(dictionary -> dictionary.recordChange(before, after));
+        invalidateCaches(id, CacheInvalidationType.SPECIFIC_ID);
+        return after;
+    }
+
+    private Metadata readCurrent(UUID id) {
+        Metadata current = readRecord(id);
+        if (current != null) {
+            return current;
+        }
+        try {
+            ResponseEntity<Metadata> getResponse = restTemplate.exchange(
+                    metaclientBaseUrl + "/metadata/{id}",
+                    HttpMethod.GET,
+                    null,
+                    Metadata.class,
+                    id
+            );
+
+            if (!getResponse.getStatusCode().is2xxSuccessful() || getResponse.getBody() == null) {
+                throw new MetadataNotFoundException("Metadata with ID " + id + " not found");
+            }
+            return getResponse.getBody();
+        } catch (Exception e) {
+            throw new MetadataNotFoundException("Metadata with ID " + id + " not found");
+        }
+    }
+
     public void deleteMetadata(UUID id) {
         try {
-            restTemplate.delete(METACLIENT_BASE_URL + "/metadata/" + id);
+            Metadata before = readRecord(id);
+            if (before == null) {
+                try {
+                    before = restTemplate.getForObject(metaclientBaseUrl + "/metadata/{id}", Metadata.class, id);
+                } catch (org.springframework.web.client.HttpClientErrorException.NotFound e) {
+                    before = null;
+                }
+            }
+            restTemplate.delete(metaclientBaseUrl + "/metadata/{id}", id);
+            stringRedisTemplate.delete(RECORD_KEY_PREFIX + id);
+            cacheMissing(id);
+            idIndex.remove(id);
+            searchIndex.remove(id);
+            if (before != null) {
+                Metadata previous = before;
+                updateDictionariesOnWrite(dictionary -> dictionary.recordChange(previous, null));
+            }
             invalidateCaches(id, CacheInvalidationType.SPECIFIC_ID);
         } catch (Exception e) {
             logger.error("Error deleting metadata: {}", e.getMessage());
@@ -203,34 +520,117 @@ public class MetacacheService {
         }
     }
 
+    public BulkOperationResult bulkUpdate(BulkUpdateRequest request) {
+        BulkOperationResult result = postBulk("/metadata/bulk/update", request);
+        Collection<String> fields = request.getSet().keySet();
+        invalidateBulk(result.getIds(), false, fields.contains("type") || fields.contains("issuer"));
+        return result;
+    }
+
+    public BulkOperationResult bulkDelete(BulkDeleteRequest request) {
+        BulkOperationResult result = postBulk("/metadata/bulk/delete", request);
+        invalidateBulk(result.getIds(), true, true);
+        return result;
+    }
+
+    private BulkOperationResult postBulk(String path, Object request) {
+        try {
+            BulkOperationResult result = restTemplate.postForObject(metaclientBaseUrl + path, request, BulkOperationResult.class);
+            if (result == null || result.getIds() == null) {
+                throw new RuntimeException("Invalid response from metaclient bulk operation");
+            }
+            return result;
+        } catch (HttpClientErrorException.BadRequest e) {
+            throw new IllegalArgumentException("Metaclient rejected bulk operation", e);
+        }
+    }
+
+    /**
+     * Drops the affected records (and, for deletes, their ID index entries) in one
+     * pipeline and broadcasts their invalidations in another. The new values are not known
+     * here, so the search index re-reads updated records and the dictionaries are
+     * reconciled rather than adjusted, unless the change feed maintains them.
+     */
+    private void invalidateBulk(List<UUID> ids, boolean deleted, boolean dictionariesChanged) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, String> redisOperations = (RedisOperations<String, String>) operations;
+                for (UUID id : ids) {
+                    redisOperations.delete(RECORD_KEY_PREFIX + id);
+                }
+                if (deleted) {
+                    redisOperations.opsForZSet().remove(idIndex.getKey(), ids.stream().map(UUID::toString).toArray());
+                }
+                return null;
+            }
+        });
+        if (deleted) {
+            ids.forEach(searchIndex::remove);
+        } else {
+            searchIndex.refresh(ids);
+        }
+        invalidationBus.invalidateKeys(ids.stream().map(id -> KEY_PREFIX + id).toList());
+        searchNamespace.advance();
+        invalidationBus.invalidatePrefix(SEARCH_KEY_PREFIX);
+        if (dictionariesChanged && !changeFeed.isEnabled()) {
+            dictionaryReconciler.reconcile(typesDictionary);
+            dictionaryReconciler.reconcile(issuersDictionary);
+        }
+    }
+
     public MetadataResponse searchMetadata(String keyword) {
         Instant start = Instant.now();
-        String searchKey = SEARCH_KEY_PREFIX + keyword.toLowerCase();
+        keywordTracker.record(keyword.toLowerCase());
+        if (searchIndex.isReady()) {
+            List<Metadata> results = searchIndex.search(keyword, searchResultLimit);
+            Duration timeTaken = Duration.between(start, Instant.now());
+            return new MetadataResponse(results, timeTaken, "INDEX");
+        }
 
-        Object cachedData = redisTemplate.opsForValue().get(searchKey);
-        if (cachedData instanceof List) {
-            @SuppressWarnings("unchecked")
-            List<Metadata> results = (List<Metadata>) cachedData;
+        String normalizedKeyword = keyword.toLowerCase();
+        String localKey = SEARCH_KEY_PREFIX + normalizedKeyword;
+
+        if (nearCache.get(localKey) instanceof List<?> localData) {
             Duration timeTaken = Duration.between(start, Instant.now());
-            return new MetadataResponse(results, timeTaken, "CACHE");
+            return new MetadataResponse(localData, timeTaken, "LOCAL");
         }
 
-        try {
-            ResponseEntity<List<Metadata>> response = restTemplate.exchange(
-                    METACLIENT_BASE_URL + "/metadata/search?keyword=" + keyword,
-                    HttpMethod.GET,
-                    null,
-                    new ParameterizedTypeReference<>() {
-                    }
-            );
+        long generation = searchNamespace.currentGeneration();
+        String searchKey = searchNamespace.key(generation, SEARCH_IDS_SUFFIX + normalizedKeyword);
+        List<Object> cached = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, Object> redisOperations = (RedisOperations<String, Object>) operations;
+                redisOperations.opsForValue().get(searchKey);
+                redisOperations.getExpire(searchKey, TimeUnit.MILLISECONDS);
+                return null;
+            }
+        });
 
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                List<Metadata> results = response.getBody();
+        try {
+            List<UUID> cachedIds = idList(cached.get(0));
+            if (cachedIds != null) {
+                if (refreshAhead.observe(KeyClass.SEARCH, (Long) cached.get(1))) {
+                    refreshAhead.refresh(KeyClass.SEARCH, searchKey, () -> refreshSearchResults(keyword, searchKey));
+                }
+                ResolvedRecords resolved = resolveRecords(cachedIds, this::loadMetadataBatch);
                 Duration timeTaken = Duration.between(start, Instant.now());
-                redisTemplate.opsForValue().set(searchKey, results, CACHE_TTL_HOURS, TimeUnit.HOURS);
-                return new MetadataResponse(results, timeTaken, "DB");
+                nearCache.put(localKey, resolved.records(), nearCacheSearchTtl);
+                return new MetadataResponse(resolved.records(), timeTaken, resolved.loaded() ? "DB" : "CACHE");
             }
-            throw new RuntimeException("Invalid response format from database");
+
+            List<Metadata> results = singleFlight.execute(searchKey,
+                    () -> loadSearchResults(keyword, generation, searchKey),
+                    () -> cachedSearchResults(searchKey));
+            Duration timeTaken = Duration.between(start, Instant.now());
+            nearCache.put(localKey, results, nearCacheSearchTtl);
+            return new MetadataResponse(results, timeTaken, "DB");
         } catch (Exception e) {
             logger.error("Error searching metadata: {}", e.getMessage());
             throw new RuntimeException("Failed to search metadata", e);
@@ -238,108 +638,433 @@ public class MetacacheService {
     }
 
     public MetadataResponse getAllTypes() {
-        Instant start = Instant.now();
+        return getDictionary(typesDictionary);
+    }
 
-        Object cachedData = redisTemplate.opsForValue().get(TYPES_KEY);
-        if (cachedData instanceof List) {
-            @SuppressWarnings("unchecked")
-            List<String> types = (List<String>) cachedData;
-            Duration timeTaken = Duration.between(start, Instant.now());
-            return new MetadataResponse(types, timeTaken, "CACHE");
-        }
+    public MetadataResponse getAllIssuers() {
+        return getDictionary(issuersDictionary);
+    }
 
+    public String loadTestData(int count) {
         try {
-            ResponseEntity<List<String>> response = restTemplate.exchange(
-                    METACLIENT_BASE_URL + "/metadata/types",
-                    HttpMethod.GET,
+            ResponseEntity<Map<String, String>> response = restTemplate.exchange(
+                    metaclientBaseUrl + "/metadata/load/test-data/{count}",
+                    HttpMethod.POST,
                     null,
-                    new ParameterizedTypeReference<>() {
-                    }
+                    new ParameterizedTypeReference<Map<String, String>>() {},
+                    count
             );
 
             if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                List<String> types = response.getBody();
-                Duration timeTaken = Duration.between(start, Instant.now());
-                redisTemplate.opsForValue().set(TYPES_KEY, types, CACHE_TTL_HOURS, TimeUnit.HOURS);
-                return new MetadataResponse(types, timeTaken, "DB");
+                idIndex.reset();
+                invalidateCaches(null, CacheInvalidationType.ALL);
+                searchIndex.rebuild();
+                idBloomFilter.rebuild();
+                dictionaryReconciler.reconcile(typesDictionary);
+                dictionaryReconciler.reconcile(issuersDictionary);
+                return response.getBody().get("message");
             }
             throw new RuntimeException("Invalid response format from database");
         } catch (Exception e) {
-            logger.error("Error fetching all types: {}", e.getMessage());
-            throw new RuntimeException("Failed to fetch all types", e);
+            logger.error("Error loading test data: {}", e.getMessage());
+            throw new RuntimeException("Failed to load test data", e);
         }
     }
 
-    public MetadataResponse getAllIssuers() {
-        Instant start = Instant.now();
+    private Metadata loadMetadata(UUID id) {
+        ResponseEntity<Metadata> response = restTemplate.exchange(
+                metaclientBaseUrl + "/metadata/{id}",
+                HttpMethod.GET,
+                null,
+                Metadata.class,
+                id
+        );
 
-        Object cachedData = redisTemplate.opsForValue().get(ISSUERS_KEY);
-        if (cachedData instanceof List) {
-            @SuppressWarnings("unchecked")
-            List<String> issuers = (List<String>) cachedData;
-            Duration timeTaken = Duration.between(start, Instant.now());
-            return new MetadataResponse(issuers, timeTaken, "CACHE");
+        if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
+            Metadata metadata = response.getBody();
+            populateCache(List.of(metadata));
+            return metadata;
         }
+        throw new RuntimeException("Invalid response format from database");
+    }
 
-        try {
-            ResponseEntity<List<String>> response = restTemplate.exchange(
-                    METACLIENT_BASE_URL + "/metadata/issuers",
+    /**
+     * Loads one page of metaclient's ID range ({@code after}, {@code before}) into the
+     * record hashes and the ID index, for the startup warm-up.
+     */
+    public MetadataPage warmPage(UUID after, UUID before) {
+        MetadataPage page = restTemplate.getForObject(
+                metaclientBaseUrl + "/metadata/page?limit={limit}&after={after}&before={before}", MetadataPage.class,
+                allPageSize, after != null ? after : "", before != null ? before : "");
+        if (page == null || page.getItems() == null) {
+            throw new RuntimeException("Invalid response format from database");
+        }
+        populateCache(page.getItems());
+        idIndex.addAll(page.getItems().stream().map(Metadata::getId).toList());
+        return page;
+    }
+
+    /**
+     * Builds the ID index from metaclient's keyset pages, once per cluster when the
+     * single-flight lease is enabled. A complete index close to expiry is rebuilt in the
+     * background instead.
+     *
+     * @return whether this call had to wait for a build
+     */
+    private boolean ensureIdIndex() {
+        long remaining = idIndex.remainingTtlMillis();
+        if (remaining != -2) {
+            if (refreshAhead.observe(KeyClass.ALL, remaining)) {
+                refreshAhead.refresh(KeyClass.ALL, idIndex.getKey(), this::buildIdIndex);
+            }
+            return false;
+        }
+        singleFlight.execute(idIndex.getKey(),
+                () -> {
+                    buildIdIndex();
+                    return Boolean.TRUE;
+                },
+                () -> idIndex.isComplete() ? Boolean.TRUE : null);
+        return true;
+    }
+
+    private void buildIdIndex() {
+        UUID cursor = null;
+        long count = 0;
+        do {
+            ResponseEntity<MetadataPage> response = restTemplate.exchange(
+                    metaclientBaseUrl + "/metadata/page?limit={limit}&after={after}",
                     HttpMethod.GET,
                     null,
-                    new ParameterizedTypeReference<>() {
-                    }
+                    MetadataPage.class,
+                    allPageSize,
+                    cursor != null ? cursor : ""
             );
+            MetadataPage page = response.getBody();
+            if (!response.getStatusCode().is2xxSuccessful() || page == null) {
+                throw new RuntimeException("Invalid response format from database");
+            }
+            populateCache(page.getItems());
+            idIndex.addAll(page.getItems().stream().map(Metadata::getId).toList());
+            count += page.getItems().size();
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        idIndex.markComplete();
+        logger.info("Built metadata ID index with {} IDs", count);
+    }
 
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                List<String> issuers = response.getBody();
-                Duration timeTaken = Duration.between(start, Instant.now());
-                redisTemplate.opsForValue().set(ISSUERS_KEY, issuers, CACHE_TTL_HOURS, TimeUnit.HOURS);
-                return new MetadataResponse(issuers, timeTaken, "DB");
+    private List<Metadata> loadMetadataBatch(List<UUID> ids) {
+        ResponseEntity<List<Metadata>> response = restTemplate.exchange(
+                metaclientBaseUrl + "/metadata/batch",
+                HttpMethod.POST,
+                new HttpEntity<>(ids),
+                new ParameterizedTypeReference<>() {
+                }
+        );
+
+        if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
+            return response.getBody();
+        }
+        throw new RuntimeException("Invalid response format from database");
+    }
+
+    /**
+     * Caches the matching IDs and returns the records as cached, writing only those not
+     * cached yet, so that search results agree with lookups by ID.
+     */
+    private List<Metadata> loadSearchResults(String keyword, long generation, String searchKey) {
+        List<Metadata> results = fetchSearchResults(keyword);
+        List<UUID> ids = searchIds(results);
+        redisTemplate.opsForValue().set(searchKey, ids, ttlPolicy.ttl(KeyClass.SEARCH));
+        searchNamespace.recordWrite(generation);
+        return resolveRecords(ids, missing -> selectRecords(results, missing)).records();
+    }
+
+    /**
+     * Rewrites a search entry ahead of expiry, unless it has been invalidated meanwhile.
+     */
+    private void refreshSearchResults(String keyword, String searchKey) {
+        List<Metadata> results = fetchSearchResults(keyword);
+        List<UUID> ids = searchIds(results);
+        if (Boolean.TRUE.equals(redisTemplate.opsForValue().setIfPresent(searchKey, ids, ttlPolicy.ttl(KeyClass.SEARCH)))) {
+            resolveRecords(ids, missing -> selectRecords(results, missing));
+        }
+    }
+
+    private List<Metadata> cachedSearchResults(String searchKey) {
+        List<UUID> ids = idList(redisTemplate.opsForValue().get(searchKey));
+        return ids != null ? resolveRecords(ids, this::loadMetadataBatch).records() : null;
+    }
+
+    /**
+     * Materializes records in the given order from the near cache, then from Redis in one
+     * pipeline, loading the rest in bulk and caching them. IDs that no longer exist are
+     * left out.
+     */
+    private ResolvedRecords resolveRecords(List<UUID> ids, Function<List<UUID>, List<Metadata>> loader) {
+        Map<UUID, Metadata> resolved = new HashMap<>();
+        List<UUID> remaining = new ArrayList<>();
+        for (UUID id : ids) {
+            if (nearCache.get(KEY_PREFIX + id) instanceof Metadata localData) {
+                resolved.put(id, localData);
+            } else {
+                remaining.add(id);
             }
-            throw new RuntimeException("Invalid response format from database");
-        } catch (Exception e) {
-            logger.error("Error fetching all issuers: {}", e.getMessage());
-            throw new RuntimeException("Failed to fetch all issuers", e);
         }
+        List<UUID> missing = new ArrayList<>();
+        if (!remaining.isEmpty()) {
+            List<Metadata> cachedData = readRecords(remaining);
+            for (int i = 0; i < remaining.size(); i++) {
+                if (cachedData.get(i) != null) {
+                    resolved.put(remaining.get(i), cachedData.get(i));
+                } else {
+                    missing.add(remaining.get(i));
+                }
+            }
+        }
+        if (!missing.isEmpty()) {
+            List<Metadata> loaded = loader.apply(missing);
+            populateCache(loaded);
+            loaded.forEach(metadata -> resolved.put(metadata.getId(), metadata));
+        }
+        List<Metadata> records = new ArrayList<>(ids.size());
+        for (UUID id : ids) {
+            Metadata metadata = resolved.get(id);
+            if (metadata != null) {
+                records.add(metadata);
+            }
+        }
+        return new ResolvedRecords(records, !missing.isEmpty());
     }
 
-    public String loadTestData(int count) {
+    private static List<Metadata> selectRecords(List<Metadata> records, List<UUID> ids) {
+        Set<UUID> wanted = new HashSet<>(ids);
+        return records.stream().filter(metadata -> wanted.contains(metadata.getId())).toList();
+    }
+
+    /**
+     * Collects result IDs into an {@link ArrayList}, whose type the JSON codec records;
+     * immutable JDK lists are written untyped and cannot be read back.
+     */
+    private static List<UUID> searchIds(List<Metadata> results) {
+        List<UUID> ids = new ArrayList<>(results.size());
+        results.forEach(metadata -> ids.add(metadata.getId()));
+        return ids;
+    }
+
+    /**
+     * Reads a cached ID list; JSON-encoded lists come back as strings.
+     */
+    private static List<UUID> idList(Object value) {
+        if (!(value instanceof List<?> list)) {
+            return null;
+        }
+        List<UUID> ids = new ArrayList<>(list.size());
+        for (Object element : list) {
+            ids.add(element instanceof UUID id ? id : UUID.fromString(element.toString()));
+        }
+        return ids;
+    }
+
+    private List<Metadata> fetchSearchResults(String keyword) {
+        ResponseEntity<List<Metadata>> response = restTemplate.exchange(
+                metaclientBaseUrl + "/metadata/search?keyword={keyword}&limit={limit}",
+                HttpMethod.GET,
+                null,
+                new ParameterizedTypeReference<>() {
+                },
+                keyword,
+                searchResultLimit
+        );
+
+        if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
+            return response.getBody();
+        }
+        throw new RuntimeException("Invalid response format from database");
+    }
+
+    private MetadataResponse getDictionary(ReferenceCountedDictionary dictionary) {
+        Instant start = Instant.now();
+        String nearCacheKey = dictionary.getNearCacheKey();
+
+        if (nearCache.get(nearCacheKey) instanceof List<?> localData) {
+            Duration timeTaken = Duration.between(start, Instant.now());
+            return new MetadataResponse(localData, timeTaken, "LOCAL");
+        }
+
+        List<String> values = dictionary.values();
+        if (values != null) {
+            if (refreshAhead.observe(KeyClass.DICTIONARY, dictionary.remainingTtlMillis())) {
+                refreshAhead.refresh(KeyClass.DICTIONARY, dictionary.getCountsKey(), () -> {
+                    if (dictionary.reconcile()) {
+                        invalidationBus.invalidateKey(dictionary.getNearCacheKey());
+                    }
+                });
+            }
+            Duration timeTaken = Duration.between(start, Instant.now());
+            nearCache.put(nearCacheKey, values, nearCacheDictionaryTtl);
+            return new MetadataResponse(values, timeTaken, "CACHE");
+        }
+
         try {
-            ResponseEntity<Map<String, String>> response = restTemplate.exchange(
-                    METACLIENT_BASE_URL + "/metadata/load/test-data/" + count,
-                    HttpMethod.POST,
-                    null,
-                    new ParameterizedTypeReference<Map<String, String>>() {}
-            );
+            List<String> seeded = singleFlight.execute(dictionary.getCountsKey(),
+                    () -> {
+                        dictionary.reconcile();
+                        List<String> loaded = dictionary.values();
+                        return loaded != null ? loaded : List.of();
+                    },
+                    dictionary::values);
+            Duration timeTaken = Duration.between(start, Instant.now());
+            nearCache.put(nearCacheKey, seeded, nearCacheDictionaryTtl);
+            return new MetadataResponse(seeded, timeTaken, "DB");
+        } catch (Exception e) {
+            logger.error("Error fetching all {}: {}", dictionary.getName(), e.getMessage());
+            throw new RuntimeException("Failed to fetch all " + dictionary.getName(), e);
+        }
+    }
 
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                invalidateCaches(null, CacheInvalidationType.ALL);
-                return response.getBody().get("message");
+    /**
+     * With the change feed enabled, write-through changes reach the dictionaries through
+     * the feed instead, which applies each change exactly once whoever made it.
+     */
+    private void updateDictionariesOnWrite(Predicate<ReferenceCountedDictionary> update) {
+        if (!changeFeed.isEnabled()) {
+            updateDictionaries(update);
+        }
+    }
+
+    private void updateDictionaries(Predicate<ReferenceCountedDictionary> update) {
+        for (ReferenceCountedDictionary dictionary : List.of(typesDictionary, issuersDictionary)) {
+            try {
+                if (update.test(dictionary)) {
+                    invalidationBus.invalidateKey(dictionary.getNearCacheKey());
+                }
+            } catch (Exception e) {
+                // Left for the reconciliation job to repair.
+                logger.error("Error updating {} dictionary: {}", dictionary.getName(), e.getMessage());
             }
-            throw new RuntimeException("Invalid response format from database");
+        }
+    }
+
+    private void requireMightExist(UUID id) {
+        if (!idBloomFilter.mightContain(id)) {
+            throw new MetadataNotFoundException("Metadata with ID " + id + " not found");
+        }
+    }
+
+    /**
+     * Remembers for a short TTL that an ID does not exist, so that repeated lookups of
+     * deleted or mistyped IDs, which the Bloom filter cannot rule out, skip metaclient.
+     */
+    private void cacheMissing(UUID id) {
+        try {
+            stringRedisTemplate.opsForValue().set(MISSING_KEY_PREFIX + id, "1", ttlPolicy.ttl(KeyClass.MISSING));
         } catch (Exception e) {
-            logger.error("Error loading test data: {}", e.getMessage());
-            throw new RuntimeException("Failed to load test data", e);
+            logger.warn("Error caching missing metadata {}: {}", id, e.getMessage());
         }
     }
 
     private void invalidateCaches(UUID id, CacheInvalidationType type) {
         if (type == CacheInvalidationType.ALL) {
-            redisTemplate.delete(ALL_METADATA_KEY);
-            redisTemplate.delete(TYPES_KEY);
-            redisTemplate.delete(ISSUERS_KEY);
-            redisTemplate.delete(redisTemplate.keys(SEARCH_KEY_PREFIX + "*"));
+            searchNamespace.advance();
+            invalidationBus.invalidateAll();
         } else if (type == CacheInvalidationType.SPECIFIC_ID && id != null) {
-            redisTemplate.delete(KEY_PREFIX + id);
-            redisTemplate.delete(ALL_METADATA_KEY);
-            redisTemplate.delete(TYPES_KEY);
-            redisTemplate.delete(ISSUERS_KEY);
-            redisTemplate.delete(redisTemplate.keys(SEARCH_KEY_PREFIX + "*"));
+            searchNamespace.advance();
+            invalidationBus.invalidateKey(KEY_PREFIX + id);
+            invalidationBus.invalidatePrefix(SEARCH_KEY_PREFIX);
+        }
+    }
+
+    /**
+     * Writes each record as a hash with one field per attribute.
+     */
+    private void populateCache(Collection<Metadata> metadataList) {
+        if (metadataList.isEmpty()) {
+            return;
+        }
+        stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, String> redisOperations = (RedisOperations<String, String>) operations;
+                for (Metadata metadata : metadataList) {
+                    String recordKey = RECORD_KEY_PREFIX + metadata.getId();
+                    redisOperations.opsForHash().putAll(recordKey, MetadataRecords.toRecord(metadata));
+                    redisOperations.expire(recordKey, ttlPolicy.ttl(KeyClass.ID));
+                }
+                return null;
+            }
+        });
+    }
+
+    /**
+     * HSETs only the fields a PATCH touched, keeping the cached record warm. A record that
+     * is not cached is written in full from the updated metadata instead.
+     */
+    private void updateRecordFields(Metadata metadata, Collection<String> updatedFields) {
+        List<String> arguments = new ArrayList<>();
+        for (String field : updatedFields) {
+            String value = MetadataRecords.FIELDS.contains(field) ? MetadataRecords.fieldValue(metadata, field) : null;
+            if (value != null) {
+                arguments.add(field);
+                arguments.add(value);
+            }
+        }
+        String recordKey = RECORD_KEY_PREFIX + metadata.getId();
+        Long updated = arguments.isEmpty() ? Long.valueOf(1)
+                : stringRedisTemplate.execute(UPDATE_RECORD_FIELDS, List.of(recordKey), arguments.toArray());
+        if (!Long.valueOf(1).equals(updated)) {
+            populateCache(List.of(metadata));
+        }
+    }
+
+    private Metadata readRecord(UUID id) {
+        return MetadataRecords.fromRecord(stringRedisTemplate.<String, String>opsForHash().entries(RECORD_KEY_PREFIX + id));
+    }
+
+    /**
+     * Reads records for serving, with their PTTLs in the same pipeline; records read
+     * close to expiry are reloaded in the background.
+     */
+    private List<Metadata> readRecords(List<UUID> ids) {
+        List<Object> records = stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, String> redisOperations = (RedisOperations<String, String>) operations;
+                for (UUID id : ids) {
+                    redisOperations.opsForHash().entries(RECORD_KEY_PREFIX + id);
+                    redisOperations.getExpire(RECORD_KEY_PREFIX + id, TimeUnit.MILLISECONDS);
+                }
+                return null;
+            }
+        });
+        List<Metadata> results = new ArrayList<>(ids.size());
+        List<UUID> expiring = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            @SuppressWarnings("unchecked")
+            Map<String, String> fields = (Map<String, String>) records.get(2 * i);
+            Metadata metadata = MetadataRecords.fromRecord(fields);
+            results.add(metadata);
+            if (metadata != null && refreshAhead.observe(KeyClass.ID, (Long) records.get(2 * i + 1))) {
+                expiring.add(ids.get(i));
+            }
+        }
+        if (!expiring.isEmpty()) {
+            refreshAhead.refresh(KeyClass.ID, expiring, id -> RECORD_KEY_PREFIX + id,
+                    claimed -> populateCache(loadMetadataBatch(claimed)));
+        }
+        return results;
+    }
+
+    private static Map<String, Object> project(Metadata metadata, List<String> fields) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        for (String field : fields) {
+            data.put(field, MetadataRecords.fieldValue(metadata, field));
         }
+        return data;
     }
 
-    private void saveToCache(Metadata metadata) {
-        String key = KEY_PREFIX + metadata.getId();
-        redisTemplate.opsForValue().set(key, metadata, CACHE_TTL_HOURS, TimeUnit.HOURS);
+    private record ResolvedRecords(List<Metadata> records, boolean loaded) {
     }
-} 
\ No newline at end of file
+}
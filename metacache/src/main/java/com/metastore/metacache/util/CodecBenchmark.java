@@ -0,0 +1,89 @@
+package com.metastore.metacache.util;
+
+import com.metastore.metacache.codec.BinaryValueCodec;
+import com.metastore.metacache.codec.JsonValueCodec;
+import com.metastore.metacache.codec.ValueCodec;
+import com.metastore.metacache.model.Metadata;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Compares the legacy JSON and the binary Redis value codecs on the records the data
+ * loader generates. Run with {@code --spring.profiles.active=codec-benchmark}; results are
+ * logged as bytes per value and decode time per value for each codec and value shape.
+ */
+@Component
+@Profile("codec-benchmark")
+public class CodecBenchmark implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(CodecBenchmark.class);
+    private static final String[] TYPES = {"Bond", "Stock", "ETF", "Mutual Fund", "Derivative"};
+    private static final String[] ISSUERS = {"JP Morgan", "Goldman Sachs", "Morgan Stanley", "BlackRock", "Vanguard"};
+    private static final String[] RISK_RATINGS = {"Low", "Medium", "High", "Very High"};
+
+    @Value("${metacache.codec-benchmark.records:10000}")
+    private int records;
+
+    @Value("${metacache.codec-benchmark.list-size:1000}")
+    private int listSize;
+
+    @Value("${metacache.codec-benchmark.rounds:20}")
+    private int rounds;
+
+    @Override
+    public void run(String... args) {
+        List<Metadata> metadataList = new ArrayList<>(records);
+        for (int i = 0; i < records; i++) {
+            metadataList.add(randomMetadata(i));
+        }
+        List<Object> singles = new ArrayList<>(metadataList);
+        List<Object> lists = new ArrayList<>();
+        for (int i = 0; i + listSize <= records; i += listSize) {
+            lists.add(new ArrayList<>(metadataList.subList(i, i + listSize)));
+        }
+
+        for (ValueCodec codec : List.of(new JsonValueCodec(), new BinaryValueCodec())) {
+            report(codec, "metadata", singles);
+            report(codec, "list-" + listSize, lists);
+        }
+        logger.info("Codec benchmark complete");
+    }
+
+    private void report(ValueCodec codec, String shape, List<Object> values) {
+        List<byte[]> encoded = values.stream().map(codec::encode).toList();
+        long totalBytes = encoded.stream().mapToLong(bytes -> bytes.length).sum();
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < rounds; round++) {
+            long start = System.nanoTime();
+            for (byte[] bytes : encoded) {
+                if (codec.decode(bytes) == null) {
+                    throw new IllegalStateException("Decoded a null value");
+                }
+            }
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        logger.info("codec={} shape={} bytesPerValue={} decodeMicrosPerValue={}",
+                codec.getClass().getSimpleName(), shape, totalBytes / values.size(),
+                String.format("%.2f", best / 1000.0 / values.size()));
+    }
+
+    private static Metadata randomMetadata(int i) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Metadata metadata = new Metadata();
+        metadata.setId(UUID.randomUUID());
+        metadata.setName("Test Asset " + i);
+        metadata.setType(TYPES[random.nextInt(TYPES.length)]);
+        metadata.setIssuer(ISSUERS[random.nextInt(ISSUERS.length)]);
+        metadata.setRiskRating(RISK_RATINGS[random.nextInt(RISK_RATINGS.length)]);
+        return metadata;
+    }
+}
@@ -0,0 +1,222 @@
+package com.metastore.metacache.warmup;
+
+import com.metastore.metacache.cache.DictionaryReconciler;
+import com.metastore.metacache.cache.MetadataIdIndex;
+import com.metastore.metacache.cache.ReferenceCountedDictionary;
+import com.metastore.metacache.model.MetadataPage;
+import com.metastore.metacache.service.MetacacheService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fills the record hashes, the ID index and the dictionaries from metaclient when a
+ * replica starts against a cold Redis. The UUID space is cut into
+ * {@code metacache.warmup.ranges} ranges whose keyset pages are fetched on
+ * {@code metacache.warmup.parallelism} threads; {@link WarmupHealthIndicator} holds
+ * readiness until {@code metacache.warmup.ready-percent} of the records are loaded.
+ */
+@Component
+public class CacheWarmer {
+    private static final Logger logger = LoggerFactory.getLogger(CacheWarmer.class);
+
+    enum State { PENDING, RUNNING, COMPLETE, SKIPPED, FAILED }
+
+    private final MetacacheService metacacheService;
+    private final MetadataIdIndex idIndex;
+    private final DictionaryReconciler dictionaryReconciler;
+    private final List<ReferenceCountedDictionary> dictionaries;
+    private final SearchKeywordTracker keywordTracker;
+    private final RestTemplate restTemplate;
+    private final AtomicLong loaded = new AtomicLong();
+    private final AtomicInteger rangesDone = new AtomicInteger();
+    private volatile State state = State.PENDING;
+    private volatile long total;
+    private volatile long startedAt;
+
+    @Value("${metacache.warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${metacache.warmup.parallelism:4}")
+    private int parallelism;
+
+    @Value("${metacache.warmup.ranges:16}")
+    private int ranges;
+
+    @Value("${metacache.warmup.ready-percent:90}")
+    private int readyPercent;
+
+    @Value("${metacache.warmup.max-wait:PT5M}")
+    private Duration maxWait;
+
+    @Value("${metacache.warmup.replay-keywords:true}")
+    private boolean replayKeywords;
+
+    @Value("${metacache.metaclient.base-url:http://metaclient:8081}")
+    private String metaclientBaseUrl;
+
+    public CacheWarmer(MetacacheService metacacheService, MetadataIdIndex idIndex,
+                       DictionaryReconciler dictionaryReconciler, List<ReferenceCountedDictionary> dictionaries,
+                       SearchKeywordTracker keywordTracker, RestTemplate restTemplate, MeterRegistry meterRegistry) {
+        this.metacacheService = metacacheService;
+        this.idIndex = idIndex;
+        this.dictionaryReconciler = dictionaryReconciler;
+        this.dictionaries = dictionaries;
+        this.keywordTracker = keywordTracker;
+        this.restTemplate = restTemplate;
+        Gauge.builder("metacache.warmup.records", loaded, AtomicLong::get)
+                .description("Records loaded by the startup warm-up")
+                .register(meterRegistry);
+        Gauge.builder("metacache.warmup.total", this, warmer -> warmer.total)
+                .register(meterRegistry);
+        Gauge.builder("metacache.warmup.progress", this, CacheWarmer::progressPercent)
+                .description("Percentage of metaclient's records loaded by the startup warm-up")
+                .baseUnit("percent")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            state = State.SKIPPED;
+            return;
+        }
+        startedAt = System.nanoTime();
+        Thread thread = new Thread(this::warm, "cache-warmer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Ready once enough records are warm, the warm-up is over either way, or
+     * {@code max-wait} has passed, so that a slow metaclient cannot hold a replica out
+     * of rotation indefinitely.
+     */
+    public boolean isReady() {
+        return switch (state) {
+            case PENDING -> false;
+            case RUNNING -> progressPercent() >= readyPercent || System.nanoTime() - startedAt >= maxWait.toNanos();
+            default -> true;
+        };
+    }
+
+    State getState() {
+        return state;
+    }
+
+    long getLoaded() {
+        return loaded.get();
+    }
+
+    long getTotal() {
+        return total;
+    }
+
+    double progressPercent() {
+        if (state == State.COMPLETE || state == State.SKIPPED) {
+            return 100;
+        }
+        long expected = total;
+        return expected > 0 ? Math.min(100, loaded.get() * 100.0 / expected) : 0;
+    }
+
+    private void warm() {
+        state = State.RUNNING;
+        try {
+            if (idIndex.isComplete()) {
+                logger.info("Cache is already warm, skipping warm-up");
+                state = State.SKIPPED;
+                return;
+            }
+            Long count = restTemplate.getForObject(metaclientBaseUrl + "/metadata/count", Long.class);
+            total = count != null ? count : 0;
+            logger.info("Warming cache with {} records over {} ranges on {} threads", total, ranges, parallelism);
+
+            loadRanges();
+            // Only a full pass may mark the index complete; ranges that failed leave it to
+            // the lazy load on first read.
+            idIndex.markComplete();
+            dictionaries.forEach(dictionaryReconciler::reconcile);
+            state = State.COMPLETE;
+            logger.info("Warmed {} records in {} ms", loaded.get(), (System.nanoTime() - startedAt) / 1_000_000);
+
+            if (replayKeywords) {
+                replaySearches();
+            }
+        } catch (Exception e) {
+            state = State.FAILED;
+            logger.error("Cache warm-up failed after {} records: {}", loaded.get(), e.getMessage());
+        }
+    }
+
+    private void loadRanges() throws InterruptedException, ExecutionException {
+        try (ExecutorService executor = Executors.newFixedThreadPool(parallelism)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < ranges; i++) {
+                UUID from = i == 0 ? null : boundary(i);
+                UUID to = i == ranges - 1 ? null : boundary(i + 1);
+                futures.add(executor.submit(() -> loadRange(from, to)));
+            }
+            try {
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } catch (ExecutionException | InterruptedException e) {
+                futures.forEach(future -> future.cancel(true));
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Pages through the IDs strictly between {@code from} and {@code to}. Boundaries have
+     * all-zero low bits, which no random (version 4) UUID has, so no record falls on one.
+     */
+    private void loadRange(UUID from, UUID to) {
+        UUID after = from;
+        while (!Thread.currentThread().isInterrupted()) {
+            MetadataPage page = metacacheService.warmPage(after, to);
+            loaded.addAndGet(page.getItems().size());
+            if (page.getNextCursor() == null) {
+                break;
+            }
+            after = page.getNextCursor();
+        }
+        logger.debug("Warmed range {}/{}", rangesDone.incrementAndGet(), ranges);
+    }
+
+    private UUID boundary(int index) {
+        return new UUID(Long.divideUnsigned(-1L, ranges) * index, 0L);
+    }
+
+    private void replaySearches() {
+        List<String> keywords = keywordTracker.savedKeywords();
+        for (String keyword : keywords) {
+            try {
+                metacacheService.searchMetadata(keyword);
+            } catch (Exception e) {
+                logger.warn("Error replaying search '{}': {}", keyword, e.getMessage());
+            }
+        }
+        if (!keywords.isEmpty()) {
+            logger.info("Replayed {} searches from the previous run", keywords.size());
+        }
+    }
+}
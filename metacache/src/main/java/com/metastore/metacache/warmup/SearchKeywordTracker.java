@@ -0,0 +1,80 @@
+package com.metastore.metacache.warmup;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts search keywords in memory and, at shutdown, saves the most frequent ones to
+ * {@code metadata:warmup:keywords} so that the next start can replay them.
+ */
+@Component
+public class SearchKeywordTracker {
+    private static final Logger logger = LoggerFactory.getLogger(SearchKeywordTracker.class);
+    static final String KEYWORDS_KEY = "metadata:warmup:keywords";
+    // Bounds memory under a long tail of one-off keywords.
+    private static final int MAX_TRACKED = 10_000;
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final Map<String, LongAdder> counts = new ConcurrentHashMap<>();
+
+    @Value("${metacache.warmup.keywords:100}")
+    private int topKeywords;
+
+    public SearchKeywordTracker(StringRedisTemplate stringRedisTemplate) {
+        this.stringRedisTemplate = stringRedisTemplate;
+    }
+
+    public void record(String normalizedKeyword) {
+        LongAdder count = counts.get(normalizedKeyword);
+        if (count == null) {
+            if (counts.size() >= MAX_TRACKED) {
+                return;
+            }
+            count = counts.computeIfAbsent(normalizedKeyword, key -> new LongAdder());
+        }
+        count.increment();
+    }
+
+    /**
+     * The keywords saved by the previous run, most frequent first.
+     */
+    public List<String> savedKeywords() {
+        Set<String> keywords = stringRedisTemplate.opsForZSet().reverseRange(KEYWORDS_KEY, 0, topKeywords - 1);
+        return keywords != null ? new ArrayList<>(keywords) : List.of();
+    }
+
+    // Runs before lifecycle beans stop; the Redis connection is gone by @PreDestroy time.
+    @EventListener(ContextClosedEvent.class)
+    public void save() {
+        if (counts.isEmpty() || topKeywords <= 0) {
+            return;
+        }
+        Set<TypedTuple<String>> top = new HashSet<>();
+        counts.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, LongAdder> entry) -> entry.getValue().sum()).reversed())
+                .limit(topKeywords)
+                .forEach(entry -> top.add(TypedTuple.of(entry.getKey(), (double) entry.getValue().sum())));
+        try {
+            stringRedisTemplate.delete(KEYWORDS_KEY);
+            stringRedisTemplate.opsForZSet().add(KEYWORDS_KEY, top);
+            logger.info("Saved {} search keywords for the next warm-up", top.size());
+        } catch (Exception e) {
+            logger.warn("Error saving search keywords: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.metastore.metacache.warmup;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports {@code OUT_OF_SERVICE} while the startup warm-up is below its ready threshold;
+ * part of the readiness group, so a cold replica receives no traffic.
+ */
+@Component("warmup")
+public class WarmupHealthIndicator implements HealthIndicator {
+    private final CacheWarmer cacheWarmer;
+
+    public WarmupHealthIndicator(CacheWarmer cacheWarmer) {
+        this.cacheWarmer = cacheWarmer;
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder builder = cacheWarmer.isReady() ? Health.up() : Health.outOfService();
+        return builder.withDetail("state", cacheWarmer.getState())
+                .withDetail("records", cacheWarmer.getLoaded())
+                .withDetail("total", cacheWarmer.getTotal())
+                .withDetail("progress", Math.round(cacheWarmer.progressPercent()))
+                .build();
+    }
+}
@@ -0,0 +1,208 @@
+package com.metastore.metacache.writebehind;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.metastore.metacache.cache.DictionaryReconciler;
+import com.metastore.metacache.cache.InvalidationBus;
+import com.metastore.metacache.index.SearchIndex;
+import com.metastore.metacache.model.MetadataUpdate;
+import com.metastore.metacache.model.MetadataUpdateResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the write-behind queue into metaclient's bulk-update endpoint. Each batch is
+ * coalesced per ID, keeping the last value of every field in stream order, and is
+ * acknowledged only after metaclient has committed it; the next batch is not read until
+ * then. Updates set absolute field values, so replaying a batch after a failure is safe.
+ */
+@Component
+public class WriteBehindFlusher {
+    private static final Logger logger = LoggerFactory.getLogger(WriteBehindFlusher.class);
+    private static final String ID_KEY_PREFIX = "metadata:";
+    private static final String RECORD_KEY_PREFIX = "metadata:record:";
+    private static final TypeReference<Map<String, Object>> UPDATES_TYPE = new TypeReference<>() {
+    };
+
+    private final WriteBehindQueue queue;
+    private final RestTemplate restTemplate;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final InvalidationBus invalidationBus;
+    private final SearchIndex searchIndex;
+    private final DictionaryReconciler dictionaryReconciler;
+    private final ObjectMapper objectMapper;
+    private final AtomicLong backlog = new AtomicLong();
+    private final AtomicLong lagMillis = new AtomicLong();
+    private final Timer flushTimer;
+    private final Counter flushed;
+    private final Counter coalesced;
+    private final Counter failures;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${metacache.metaclient.base-url:http://metaclient:8081}")
+    private String metaclientBaseUrl;
+
+    @Value("${metacache.write-behind.batch-size:500}")
+    private int batchSize;
+
+    @Value("${metacache.write-behind.max-batches-per-flush:20}")
+    private int maxBatchesPerFlush;
+
+    public WriteBehindFlusher(WriteBehindQueue queue, RestTemplate restTemplate, StringRedisTemplate stringRedisTemplate,
+                              InvalidationBus invalidationBus, SearchIndex searchIndex,
+                              DictionaryReconciler dictionaryReconciler, ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry) {
+        this.queue = queue;
+        this.restTemplate = restTemplate;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.invalidationBus = invalidationBus;
+        this.searchIndex = searchIndex;
+        this.dictionaryReconciler = dictionaryReconciler;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("metacache.writebehind.backlog", backlog, AtomicLong::get)
+                .description("Updates acknowledged to clients but not yet flushed to metaclient")
+                .register(meterRegistry);
+        Gauge.builder("metacache.writebehind.lag", lagMillis, value -> value.get() / 1000.0)
+                .description("Age of the oldest update not yet flushed to metaclient")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("metacache.writebehind.flush")
+                .description("Time to flush one batch to metaclient")
+                .register(meterRegistry);
+        this.flushed = Counter.builder("metacache.writebehind.flushed")
+                .description("Queued updates flushed to metaclient")
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("metacache.writebehind.coalesced")
+                .description("Queued updates merged into a later update of the same ID before flushing")
+                .register(meterRegistry);
+        this.failures = Counter.builder("metacache.writebehind.failures")
+                .description("Batches that failed to flush and will be retried")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${metacache.write-behind.flush-interval:PT0.5S}")
+    public void flush() {
+        if (!queue.isEnabled()) {
+            return;
+        }
+        try {
+            for (int i = 0; i < maxBatchesPerFlush && queue.acquireFlusherLease(); i++) {
+                if (flushBatch() < batchSize) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            failures.increment();
+            logger.error("Error flushing write-behind queue, retrying: {}", e.getMessage());
+        } finally {
+            refreshGauges();
+        }
+    }
+
+    private int flushBatch() {
+        List<MapRecord<String, Object, Object>> records = queue.readBatch(batchSize);
+        if (records.isEmpty()) {
+            return 0;
+        }
+        Map<UUID, Map<String, Object>> updatesById = new LinkedHashMap<>();
+        Map<UUID, String> lastEntryIds = new HashMap<>();
+        List<RecordId> recordIds = new ArrayList<>(records.size());
+        for (MapRecord<String, Object, Object> record : records) {
+            recordIds.add(record.getId());
+            try {
+                UUID id = UUID.fromString((String) record.getValue().get("id"));
+                Map<String, Object> updates = objectMapper.readValue((String) record.getValue().get("updates"), UPDATES_TYPE);
+                updatesById.computeIfAbsent(id, key -> new LinkedHashMap<>()).putAll(updates);
+                lastEntryIds.put(id, record.getId().getValue());
+            } catch (Exception e) {
+                logger.error("Dropping malformed write-behind entry {}: {}", record.getId(), e.getMessage());
+            }
+        }
+
+        List<MetadataUpdate> batch = new ArrayList<>(updatesById.size());
+        updatesById.forEach((id, updates) -> batch.add(new MetadataUpdate(id, updates)));
+        if (!batch.isEmpty()) {
+            List<MetadataUpdateResult> results = flushTimer.record(() -> post(batch));
+            List<UUID> rejected = new ArrayList<>();
+            List<WriteBehindQueue.FlushedUpdate> flushedUpdates = new ArrayList<>();
+            for (MetadataUpdateResult result : results) {
+                if ("UPDATED".equals(result.getStatus())) {
+                    Map<String, String> fields = new LinkedHashMap<>();
+                    updatesById.getOrDefault(result.getId(), Map.of())
+                            .forEach((field, value) -> fields.put(field, String.valueOf(value)));
+                    flushedUpdates.add(new WriteBehindQueue.FlushedUpdate(RECORD_KEY_PREFIX + result.getId(),
+                            lastEntryIds.get(result.getId()), fields));
+                } else {
+                    meterRegistry.counter("metacache.writebehind.dropped", "status", result.getStatus()).increment();
+                    logger.warn("Metaclient rejected write-behind update for {}: {}", result.getId(), result.getStatus());
+                    rejected.add(result.getId());
+                }
+            }
+            // A refresh or backfill between enqueue and flush may have written metaclient's older values.
+            queue.reapply(flushedUpdates);
+            // The rejected values are already in the record hashes, which may even have been
+            // recreated from them, and in the dictionary counts; drop the hashes so the next
+            // read reloads from metaclient, and recount the dictionaries.
+            if (!rejected.isEmpty()) {
+                stringRedisTemplate.delete(rejected.stream().map(id -> RECORD_KEY_PREFIX + id).toList());
+                searchIndex.refresh(rejected);
+                dictionaryReconciler.reconcileAll();
+            }
+        }
+        queue.acknowledge(recordIds);
+        flushed.increment(records.size());
+        coalesced.increment(records.size() - batch.size());
+
+        // Other replicas drop near-cached copies, including rejected ones, and refresh their
+        // search index from metaclient, which now has the update.
+        updatesById.keySet().forEach(id -> invalidationBus.invalidateKey(ID_KEY_PREFIX + id));
+        return records.size();
+    }
+
+    private List<MetadataUpdateResult> post(List<MetadataUpdate> batch) {
+        ResponseEntity<List<MetadataUpdateResult>> response = restTemplate.exchange(
+                metaclientBaseUrl + "/metadata/batch/update",
+                HttpMethod.POST,
+                new HttpEntity<>(batch),
+                new ParameterizedTypeReference<>() {
+                }
+        );
+        if (!response.getStatusCode().is2xxSuccessful() || response.getBody() == null) {
+            throw new RuntimeException("Invalid response from metaclient bulk update");
+        }
+        return response.getBody();
+    }
+
+    private void refreshGauges() {
+        try {
+            backlog.set(queue.backlog());
+            lagMillis.set(queue.oldestAge().toMillis());
+        } catch (Exception e) {
+            logger.warn("Error reading write-behind queue state: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package com.metastore.metacache.writebehind;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.metastore.metacache.cache.RedisLease;
+import com.metastore.metacache.config.RedisMode;
+import com.metastore.metacache.exception.WriteBackpressureException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Durable queue of pending metadata updates in the Redis stream {@code metadata:writes}.
+ * An update is acknowledged to the caller once it is in the stream, which makes it as
+ * durable as Redis persistence. The stream is read through one consumer group by a single
+ * flusher at a time, holding {@code metadata:writes:flusher}; pending entries are re-read
+ * first after a failure or a hand-over, so every update reaches metaclient at least once
+ * and in stream order.
+ */
+@Component
+public class WriteBehindQueue {
+    static final String STREAM_KEY = "metadata:writes";
+    private static final String GROUP = "metaclient-flusher";
+    private static final Consumer CONSUMER = Consumer.from(GROUP, "flusher");
+    private static final String LEASE_KEY = "metadata:writes:flusher";
+    private static final String WRITE_ID_FIELD = "_writeId";
+
+    /**
+     * Appends the update and applies it to the cached record in one step, so the record
+     * and the stream see concurrent updates in the same order. Changed fields are written
+     * into an existing record; a missing record is written in full from the after image.
+     * The record keeps the entry ID in {@value #WRITE_ID_FIELD}. Returns nil when the
+     * backlog is full.
+     */
+    private static final RedisScript<String> APPEND = new DefaultRedisScript<>(
+            "if redis.call('XLEN', KEYS[1]) >= tonumber(ARGV[1]) then return false end "
+                    + "local entry = redis.call('XADD', KEYS[1], '*', 'id', ARGV[2], 'updates', ARGV[3]) "
+                    + "local changed = tonumber(ARGV[5]) * 2 "
+                    + "if redis.call('EXISTS', KEYS[2]) == 1 then "
+                    + "  redis.call('HSET', KEYS[2], unpack(ARGV, 6, 5 + changed)) "
+                    + "else "
+                    + "  redis.call('HSET', KEYS[2], unpack(ARGV, 6 + changed)) "
+                    + "  redis.call('EXPIRE', KEYS[2], ARGV[4]) "
+                    + "end "
+                    + "redis.call('HSET', KEYS[2], '" + WRITE_ID_FIELD + "', entry) "
+                    + "return entry",
+            String.class);
+
+    /**
+     * Cluster mode: the stream and the record live in different hash slots, so the update
+     * is appended first and then applied to the record by {@link #APPLY_TO_RECORD}.
+     */
+    private static final RedisScript<String> APPEND_ENTRY = new DefaultRedisScript<>(
+            "if redis.call('XLEN', KEYS[1]) >= tonumber(ARGV[1]) then return false end "
+                    + "return redis.call('XADD', KEYS[1], '*', 'id', ARGV[2], 'updates', ARGV[3])",
+            String.class);
+
+    /**
+     * Applies an appended update to the record unless a later entry has already been
+     * applied, tracked in the record's {@value #WRITE_ID_FIELD} field, so that racing
+     * updates land in stream order. Takes the arguments of {@link #APPEND}, with the
+     * entry ID in place of the backlog limit.
+     */
+    private static final RedisScript<Long> APPLY_TO_RECORD = new DefaultRedisScript<>(
+            "local function entry(id) local ms, seq = string.match(id, '(%d+)-(%d+)') return tonumber(ms), tonumber(seq) end "
+                    + "local applied = redis.call('HGET', KEYS[1], '" + WRITE_ID_FIELD + "') "
+                    + "if applied then "
+                    + "  local appliedMs, appliedSeq = entry(applied) "
+                    + "  local ms, seq = entry(ARGV[1]) "
+                    + "  if appliedMs > ms or (appliedMs == ms and appliedSeq >= seq) then return 0 end "
+                    + "end "
+                    + "local changed = tonumber(ARGV[5]) * 2 "
+                    + "if redis.call('EXISTS', KEYS[1]) == 1 then "
+                    + "  redis.call('HSET', KEYS[1], unpack(ARGV, 6, 5 + changed)) "
+                    + "else "
+                    + "  redis.call('HSET', KEYS[1], unpack(ARGV, 6 + changed)) "
+                    + "  redis.call('EXPIRE', KEYS[1], ARGV[4]) "
+                    + "end "
+                    + "redis.call('HSET', KEYS[1], '" + WRITE_ID_FIELD + "', ARGV[1]) "
+                    + "return 1",
+            Long.class);
+
+    /**
+     * Writes flushed fields back into a cached record, replacing values that a reload from
+     * metaclient may have put there before the flush committed. Skipped when a later entry
+     * has been applied to the record, as that one is written back by its own flush; a
+     * missing record is left to be loaded on demand.
+     */
+    private static final String REAPPLY = "local function entry(id) local ms, seq = string.match(id, '(%d+)-(%d+)') return tonumber(ms), tonumber(seq) end "
+            + "if redis.call('EXISTS', KEYS[1]) == 0 then return 0 end "
+            + "local applied = redis.call('HGET', KEYS[1], '" + WRITE_ID_FIELD + "') "
+            + "if applied then "
+            + "  local appliedMs, appliedSeq = entry(applied) "
+            + "  local ms, seq = entry(ARGV[1]) "
+            + "  if appliedMs > ms or (appliedMs == ms and appliedSeq > seq) then return 0 end "
+            + "end "
+            + "redis.call('HSET', KEYS[1], unpack(ARGV, 2)) "
+            + "return 1";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ObjectMapper objectMapper;
+    private final RedisLease flusherLease;
+    private volatile boolean groupCreated;
+
+    @Value("${metacache.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${metacache.write-behind.max-backlog:100000}")
+    private long maxBacklog;
+
+    @Value("${metacache.redis.mode:standalone}")
+    private RedisMode redisMode;
+
+    public WriteBehindQueue(StringRedisTemplate stringRedisTemplate, ObjectMapper objectMapper,
+                            @Value("${metacache.write-behind.lease:PT30S}") Duration lease) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.objectMapper = objectMapper;
+        this.flusherLease = new RedisLease(stringRedisTemplate, LEASE_KEY, lease);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @throws WriteBackpressureException when {@code metacache.write-behind.max-backlog}
+     *                                    updates are already waiting to be flushed
+     */
+    public String append(UUID id, Map<String, String> changedFields, String recordKey,
+                         Map<String, String> record, Duration recordTtl) {
+        List<String> arguments = new ArrayList<>();
+        arguments.add(Long.toString(maxBacklog));
+        arguments.add(id.toString());
+        try {
+            arguments.add(objectMapper.writeValueAsString(changedFields));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Unserializable update for " + id, e);
+        }
+        arguments.add(Long.toString(recordTtl.toSeconds()));
+        arguments.add(Integer.toString(changedFields.size()));
+        changedFields.forEach((field, value) -> {
+            arguments.add(field);
+            arguments.add(value);
+        });
+        record.forEach((field, value) -> {
+            arguments.add(field);
+            arguments.add(value);
+        });
+        if (redisMode != RedisMode.CLUSTER) {
+            return checkAppended(stringRedisTemplate.execute(APPEND, List.of(STREAM_KEY, recordKey), arguments.toArray()));
+        }
+        String entryId = checkAppended(stringRedisTemplate.execute(APPEND_ENTRY, List.of(STREAM_KEY),
+                arguments.get(0), arguments.get(1), arguments.get(2)));
+        // A failure here leaves the record stale until the flushed update comes back through the change feed.
+        arguments.set(0, entryId);
+        stringRedisTemplate.execute(APPLY_TO_RECORD, List.of(recordKey), arguments.toArray());
+        return entryId;
+    }
+
+    private String checkAppended(String entryId) {
+        if (entryId == null) {
+            throw new WriteBackpressureException("Write-behind backlog is full (" + maxBacklog + " pending updates)");
+        }
+        return entryId;
+    }
+
+    public long backlog() {
+        Long size = stringRedisTemplate.opsForStream().size(STREAM_KEY);
+        return size != null ? size : 0L;
+    }
+
+    /**
+     * Age of the oldest update not yet flushed, zero when the queue is empty.
+     */
+    public Duration oldestAge() {
+        List<MapRecord<String, Object, Object>> oldest = stringRedisTemplate.opsForStream()
+                .range(STREAM_KEY, Range.unbounded(), Limit.limit().count(1));
+        if (oldest == null || oldest.isEmpty()) {
+            return Duration.ZERO;
+        }
+        long appendedAt = oldest.get(0).getId().getTimestamp();
+        return Duration.ofMillis(Math.max(0, System.currentTimeMillis() - appendedAt));
+    }
+
+    public boolean acquireFlusherLease() {
+        return flusherLease.acquireOrRenew();
+    }
+
+    /**
+     * Returns the flusher's unacknowledged entries first, then new ones.
+     */
+    @SuppressWarnings("unchecked")
+    public List<MapRecord<String, Object, Object>> readBatch(int count) {
+        ensureGroup();
+        StreamReadOptions options = StreamReadOptions.empty().count(count);
+        List<MapRecord<String, Object, Object>> pending = stringRedisTemplate.opsForStream()
+                .read(CONSUMER, options, StreamOffset.create(STREAM_KEY, ReadOffset.from("0")));
+        if (pending != null && !pending.isEmpty()) {
+            return pending;
+        }
+        List<MapRecord<String, Object, Object>> fresh = stringRedisTemplate.opsForStream()
+                .read(CONSUMER, options, StreamOffset.create(STREAM_KEY, ReadOffset.lastConsumed()));
+        return fresh != null ? fresh : List.of();
+    }
+
+    /**
+     * Acknowledges and removes flushed entries, so the stream length is the backlog.
+     */
+    public void acknowledge(List<RecordId> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        RecordId[] recordIds = ids.toArray(new RecordId[0]);
+        stringRedisTemplate.opsForStream().acknowledge(STREAM_KEY, GROUP, recordIds);
+        stringRedisTemplate.opsForStream().delete(STREAM_KEY, recordIds);
+    }
+
+    /**
+     * Re-applies flushed updates to their cached records in one pipeline.
+     */
+    public void reapply(List<FlushedUpdate> updates) {
+        if (updates.isEmpty()) {
+            return;
+        }
+        byte[] script = REAPPLY.getBytes(StandardCharsets.UTF_8);
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (FlushedUpdate update : updates) {
+                List<byte[]> keysAndArgs = new ArrayList<>();
+                keysAndArgs.add(update.recordKey().getBytes(StandardCharsets.UTF_8));
+                keysAndArgs.add(update.entryId().getBytes(StandardCharsets.UTF_8));
+                update.fields().forEach((field, value) -> {
+                    keysAndArgs.add(field.getBytes(StandardCharsets.UTF_8));
+                    keysAndArgs.add(value.getBytes(StandardCharsets.UTF_8));
+                });
+                connection.scriptingCommands().eval(script, ReturnType.INTEGER, 1, keysAndArgs.toArray(byte[][]::new));
+            }
+            return null;
+        });
+    }
+
+    private void ensureGroup() {
+        if (groupCreated) {
+            return;
+        }
+        try {
+            stringRedisTemplate.execute((RedisCallback<String>) connection -> connection.streamCommands()
+                    .xGroupCreate(STREAM_KEY.getBytes(StandardCharsets.UTF_8), GROUP, ReadOffset.from("0"), true));
+        } catch (DataAccessException e) {
+            String message = e.getMostSpecificCause().getMessage();
+            if (message == null || !message.contains("BUSYGROUP")) {
+                throw e;
+            }
+        }
+        groupCreated = true;
+    }
+
+    /**
+     * Coalesced fields of one record as flushed, with the last stream entry they include.
+     */
+    public record FlushedUpdate(String recordKey, String entryId, Map<String, String> fields) {
+    }
+}
@@ -0,0 +1,108 @@
+package com.metastore.metacache.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class IdBloomFilterTest {
+
+    @Test
+    void bitsHaveNoFalseNegativesAndStayNearTheTargetFalsePositiveRate() {
+        IdBloomFilter.Bits bits = new IdBloomFilter.Bits(10_000, 0.01);
+        List<UUID> members = randomIds(10_000);
+        members.forEach(bits::add);
+
+        assertThat(members).allMatch(bits::mightContain);
+        long falsePositives = randomIds(20_000).stream().filter(bits::mightContain).count();
+        assertThat(falsePositives / 20_000.0).isLessThan(0.02);
+        assertThat(bits.falsePositiveRate()).isBetween(0.005, 0.02);
+    }
+
+    @Test
+    void bitsCountAnIdOnlyOnce() {
+        IdBloomFilter.Bits bits = new IdBloomFilter.Bits(1_000, 0.01);
+        UUID id = UUID.randomUUID();
+
+        bits.add(id);
+        bits.add(id);
+
+        assertThat(bits.insertions.sum()).isEqualTo(1);
+    }
+
+    @Test
+    void reportsEveryIdAsPossiblyPresentUntilLoaded() {
+        IdBloomFilter filter = filter(mock(RestTemplate.class), new SimpleMeterRegistry());
+
+        assertThat(filter.mightContain(UUID.randomUUID())).isTrue();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void rejectsIdsMissingFromTheLoadedPagesAndLearnsCreatedOnes() {
+        List<UUID> ids = randomIds(250);
+        RestTemplate restTemplate = mock(RestTemplate.class);
+        when(restTemplate.getForObject("http://metaclient/metadata/count", Long.class)).thenReturn(250L);
+        when(restTemplate.exchange(any(String.class), eq(HttpMethod.GET), isNull(), any(ParameterizedTypeReference.class),
+                eq(100), any(Object.class)))
+                .thenReturn(ResponseEntity.ok(ids.subList(0, 100)))
+                .thenReturn(ResponseEntity.ok(ids.subList(100, 200)))
+                .thenReturn(ResponseEntity.ok(ids.subList(200, 250)));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        IdBloomFilter filter = filter(restTemplate, meterRegistry);
+
+        ReflectionTestUtils.invokeMethod(filter, "load");
+
+        assertThat(ids).allMatch(filter::mightContain);
+        long rejected = randomIds(1_000).stream().filter(id -> !filter.mightContain(id)).count();
+        assertThat(rejected).isGreaterThan(900);
+        assertThat(meterRegistry.get("metacache.bloom.rejected").counter().count()).isEqualTo(rejected);
+
+        UUID created = randomUntil(id -> !filter.mightContain(id));
+        filter.onKeyInvalidated("metadata:" + created);
+        filter.onKeyInvalidated("metadata:record:" + UUID.randomUUID());
+        assertThat(filter.mightContain(created)).isTrue();
+        assertThat(meterRegistry.get("metacache.bloom.ids").gauge().value()).isEqualTo(251);
+    }
+
+    private static IdBloomFilter filter(RestTemplate restTemplate, SimpleMeterRegistry meterRegistry) {
+        IdBloomFilter filter = new IdBloomFilter(restTemplate, meterRegistry);
+        ReflectionTestUtils.setField(filter, "enabled", true);
+        ReflectionTestUtils.setField(filter, "expectedIds", 1_000L);
+        ReflectionTestUtils.setField(filter, "falsePositiveRate", 0.01);
+        ReflectionTestUtils.setField(filter, "loadPageSize", 100);
+        ReflectionTestUtils.setField(filter, "metaclientBaseUrl", "http://metaclient");
+        return filter;
+    }
+
+    private static UUID randomUntil(Predicate<UUID> condition) {
+        UUID id;
+        do {
+            id = UUID.randomUUID();
+        } while (!condition.test(id));
+        return id;
+    }
+
+    private static List<UUID> randomIds(int count) {
+        List<UUID> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(UUID.randomUUID());
+        }
+        return ids;
+    }
+}
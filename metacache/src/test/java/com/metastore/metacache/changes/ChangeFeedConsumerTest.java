@@ -0,0 +1,212 @@
+package com.metastore.metacache.changes;
+
+import com.metastore.metacache.cache.DictionaryReconciler;
+import com.metastore.metacache.cache.IdBloomFilter;
+import com.metastore.metacache.cache.InvalidationBus;
+import com.metastore.metacache.cache.MetadataIdIndex;
+import com.metastore.metacache.cache.ReferenceCountedDictionary;
+import com.metastore.metacache.cache.SearchNamespace;
+import com.metastore.metacache.index.SearchIndex;
+import com.metastore.metacache.model.ChangeEvent;
+import com.metastore.metacache.model.ChangeFeedPage;
+import com.metastore.metacache.model.Metadata;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ChangeFeedConsumerTest {
+    private static final String CHECKPOINT_KEY = "metadata:changes:checkpoint";
+
+    private final RestTemplate restTemplate = mock(RestTemplate.class);
+    private final StringRedisTemplate stringRedisTemplate = mock(StringRedisTemplate.class);
+    private final InvalidationBus invalidationBus = mock(InvalidationBus.class);
+    private final SearchIndex searchIndex = mock(SearchIndex.class);
+    private final IdBloomFilter idBloomFilter = mock(IdBloomFilter.class);
+    private final MetadataIdIndex idIndex = mock(MetadataIdIndex.class);
+    private final SearchNamespace searchNamespace = mock(SearchNamespace.class);
+    private final ReferenceCountedDictionary dictionary = mock(ReferenceCountedDictionary.class);
+    private final DictionaryReconciler dictionaryReconciler = mock(DictionaryReconciler.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicReference<String> checkpoint = new AtomicReference<>("10");
+    private final List<ChangeEvent> feed = new ArrayList<>();
+    private ChangeFeedConsumer consumer;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        ValueOperations<String, String> values = mock(ValueOperations.class);
+        when(stringRedisTemplate.opsForValue()).thenReturn(values);
+        when(values.get(CHECKPOINT_KEY)).thenAnswer(invocation -> checkpoint.get());
+        doAnswer(invocation -> {
+            checkpoint.set(invocation.getArgument(1));
+            return null;
+        }).when(values).set(eq(CHECKPOINT_KEY), anyString());
+        when(stringRedisTemplate.opsForZSet()).thenReturn(mock(ZSetOperations.class));
+        when(stringRedisTemplate.execute(any(RedisScript.class), anyList(), anyString(), anyString())).thenReturn(1L);
+        when(stringRedisTemplate.executePipelined(any(SessionCallback.class)))
+                .thenAnswer(invocation -> Collections.nCopies(100, Boolean.TRUE));
+        when(idIndex.getKey()).thenReturn("metadata:ids");
+        when(restTemplate.getForObject(anyString(), eq(ChangeFeedPage.class), anyLong(), anyInt()))
+                .thenAnswer(invocation -> page(invocation.getArgument(2)));
+
+        consumer = new ChangeFeedConsumer(restTemplate, stringRedisTemplate, invalidationBus, searchIndex, idBloomFilter,
+                idIndex, searchNamespace, List.of(dictionary), dictionaryReconciler, Duration.ofSeconds(30), meterRegistry);
+        ReflectionTestUtils.setField(consumer, "metaclientBaseUrl", "http://metaclient");
+        ReflectionTestUtils.setField(consumer, "enabled", true);
+        ReflectionTestUtils.setField(consumer, "batchSize", 1000);
+        ReflectionTestUtils.setField(consumer, "maxBatchesPerPoll", 20);
+        ReflectionTestUtils.setField(consumer, "gapTimeout", Duration.ofHours(1));
+        ReflectionTestUtils.setField(consumer, "reloadQuietPeriod", Duration.ofSeconds(2));
+    }
+
+    @Test
+    void appliesContiguousEventsAndAdvancesTheCheckpoint() {
+        ChangeEvent first = update(11, "api");
+        ChangeEvent second = update(12, "api");
+        feed.addAll(List.of(first, second));
+
+        consumer.poll();
+
+        assertThat(checkpoint.get()).isEqualTo("12");
+        verify(searchIndex).put(first.getAfter());
+        verify(searchIndex).put(second.getAfter());
+        verify(dictionary).recordChange(first.getBefore(), first.getAfter());
+        verify(searchNamespace).advance();
+        assertThat(meterRegistry.get("metacache.changes.applied").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void holdsEventsPastAnOpenGapUntilItCloses() {
+        ChangeEvent first = update(11, "api");
+        ChangeEvent third = update(13, "api");
+        feed.addAll(List.of(first, third));
+
+        consumer.poll();
+        consumer.poll();
+
+        assertThat(checkpoint.get()).isEqualTo("11");
+        verify(searchIndex).put(first.getAfter());
+        verify(searchIndex, never()).put(third.getAfter());
+        verify(searchNamespace, times(1)).advance();
+
+        ChangeEvent second = update(12, "api");
+        feed.add(1, second);
+        consumer.poll();
+
+        assertThat(checkpoint.get()).isEqualTo("13");
+        verify(searchIndex).put(second.getAfter());
+        verify(searchIndex).put(third.getAfter());
+        verify(searchNamespace, times(2)).advance();
+    }
+
+    @Test
+    void skipsAGapOnceItTimesOut() {
+        ReflectionTestUtils.setField(consumer, "gapTimeout", Duration.ZERO);
+        ChangeEvent first = update(11, "api");
+        ChangeEvent fourth = update(14, "api");
+        feed.addAll(List.of(first, fourth));
+
+        consumer.poll();
+
+        assertThat(checkpoint.get()).isEqualTo("14");
+        verify(searchIndex).put(fourth.getAfter());
+        assertThat(meterRegistry.get("metacache.changes.gaps.skipped").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void leavesDictionariesToWriteBehindForItsOwnFlushes() {
+        feed.add(update(11, "batch"));
+
+        consumer.poll();
+
+        assertThat(checkpoint.get()).isEqualTo("11");
+        verify(dictionary, never()).recordChange(any(), any());
+        verify(invalidationBus).invalidateKeys(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void writesAfterImagesIntoRecordsAndDeletesRemovedOnes() {
+        ChangeEvent updated = update(11, "api");
+        ChangeEvent flushed = update(12, "batch");
+        ChangeEvent deleted = new ChangeEvent(13, UUID.randomUUID(), ChangeEvent.DELETE, "api",
+                metadata("Gone"), null, System.currentTimeMillis());
+        feed.addAll(List.of(updated, flushed, deleted));
+
+        consumer.poll();
+
+        ArgumentCaptor<RedisCallback<Object>> callback = ArgumentCaptor.forClass(RedisCallback.class);
+        verify(stringRedisTemplate).executePipelined(callback.capture());
+        RedisConnection connection = mock(RedisConnection.class, RETURNS_DEEP_STUBS);
+        callback.getValue().doInRedis(connection);
+
+        verify(connection.scriptingCommands(), times(1)).eval(any(byte[].class), eq(ReturnType.INTEGER), eq(1),
+                any(byte[][].class));
+        verify(connection.keyCommands(), times(1)).del(any(byte[][].class));
+        verify(connection.keyCommands()).del(bytes("metadata:record:" + deleted.getId()));
+        verify(connection.zSetCommands()).zRem(bytes("metadata:ids"), bytes(deleted.getId().toString()));
+        verify(searchIndex).remove(deleted.getId());
+    }
+
+    private ChangeFeedPage page(long after) {
+        List<ChangeEvent> changes = feed.stream().filter(change -> change.getSequence() > after).toList();
+        long latest = feed.stream().mapToLong(ChangeEvent::getSequence).max().orElse(after);
+        return new ChangeFeedPage(changes, feed.isEmpty() ? null : feed.get(0).getSequence(), latest);
+    }
+
+    private static ChangeEvent update(long sequence, String source) {
+        Metadata before = metadata("Before " + sequence);
+        Metadata after = metadata("After " + sequence);
+        after.setId(before.getId());
+        return new ChangeEvent(sequence, before.getId(), ChangeEvent.UPDATE, source, before, after,
+                System.currentTimeMillis());
+    }
+
+    private static Metadata metadata(String name) {
+        Metadata metadata = new Metadata();
+        metadata.setId(UUID.randomUUID());
+        metadata.setName(name);
+        metadata.setType("Bond");
+        metadata.setIssuer("Issuer");
+        metadata.setRiskRating("Low");
+        return metadata;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
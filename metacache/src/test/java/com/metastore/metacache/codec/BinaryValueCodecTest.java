@@ -0,0 +1,72 @@
+package com.metastore.metacache.codec;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BinaryValueCodecTest {
+    private final BinaryValueCodec codec = new BinaryValueCodec();
+
+    @Test
+    void roundTripsUuidLists() {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            ids.add(UUID.randomUUID());
+        }
+
+        byte[] bytes = codec.encode(ids);
+
+        // Header, a two-byte count and 16 bytes per ID.
+        assertThat(bytes).hasSize(3 + 2 + 16 * ids.size());
+        assertThat(codec.recognizes(bytes)).isTrue();
+        assertThat(codec.decode(bytes)).isEqualTo(ids);
+    }
+
+    @Test
+    void roundTripsEmptyLists() {
+        byte[] bytes = codec.encode(List.of());
+
+        assertThat(bytes).hasSize(4);
+        assertThat(codec.decode(bytes)).isEqualTo(List.of());
+    }
+
+    @Test
+    void supportsOnlyListsOfUuids() {
+        assertThat(codec.supports(List.of(UUID.randomUUID()))).isTrue();
+        assertThat(codec.supports(List.of())).isTrue();
+        assertThat(codec.supports(List.of("not-a-uuid"))).isFalse();
+        assertThat(codec.supports(UUID.randomUUID())).isFalse();
+        assertThat(codec.supports(null)).isFalse();
+        assertThatThrownBy(() -> codec.encode(List.of("not-a-uuid"))).isInstanceOf(SerializationException.class);
+    }
+
+    @Test
+    void readsOtherVersionsAndRetiredKindsAsMisses() {
+        byte[] bytes = codec.encode(List.of(UUID.randomUUID()));
+
+        byte[] otherVersion = bytes.clone();
+        otherVersion[1] = BinaryValueCodec.VERSION + 1;
+        byte[] retiredKind = bytes.clone();
+        retiredKind[2] = 1;
+
+        assertThat(codec.decode(otherVersion)).isNull();
+        assertThat(codec.decode(retiredKind)).isNull();
+    }
+
+    @Test
+    void rejectsTruncatedAndForeignValues() {
+        byte[] bytes = codec.encode(List.of(UUID.randomUUID(), UUID.randomUUID()));
+
+        assertThatThrownBy(() -> codec.decode(Arrays.copyOf(bytes, bytes.length - 1)))
+                .isInstanceOf(SerializationException.class);
+        assertThat(codec.recognizes("[\"java.util.ArrayList\",[]]".getBytes())).isFalse();
+        assertThatThrownBy(() -> codec.decode("{}".getBytes())).isInstanceOf(SerializationException.class);
+    }
+}
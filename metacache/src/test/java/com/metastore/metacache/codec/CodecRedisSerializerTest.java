@@ -0,0 +1,68 @@
+package com.metastore.metacache.codec;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CodecRedisSerializerTest {
+    private final List<UUID> ids = new ArrayList<>(List.of(UUID.randomUUID(), UUID.randomUUID()));
+
+    @Test
+    void migrateWritesBinaryAndReadsBothFormats() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        CodecRedisSerializer serializer = serializer(CodecMode.MIGRATE, meterRegistry);
+        byte[] json = new JsonValueCodec().encode(ids);
+
+        byte[] written = serializer.serialize(ids);
+
+        assertThat(written[0]).isEqualTo(BinaryValueCodec.MAGIC);
+        assertThat(serializer.deserialize(written)).isEqualTo(ids);
+        assertThat(serializer.deserialize(json)).isEqualTo(ids);
+        assertThat(reads(meterRegistry, "binary")).isEqualTo(1);
+        assertThat(reads(meterRegistry, "json")).isEqualTo(1);
+    }
+
+    @Test
+    void migrateFallsBackToJsonForValuesTheBinaryCodecDoesNotSupport() {
+        CodecRedisSerializer serializer = serializer(CodecMode.MIGRATE, new SimpleMeterRegistry());
+
+        byte[] written = serializer.serialize("plain");
+
+        assertThat(written[0]).isNotEqualTo(BinaryValueCodec.MAGIC);
+        assertThat(serializer.deserialize(written)).isEqualTo("plain");
+    }
+
+    @Test
+    void binaryReadsLegacyJsonAsMissesAndRejectsUnsupportedValues() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        CodecRedisSerializer serializer = serializer(CodecMode.BINARY, meterRegistry);
+
+        assertThat(serializer.deserialize(new JsonValueCodec().encode(ids))).isNull();
+        assertThat(reads(meterRegistry, "ignored")).isEqualTo(1);
+        assertThatThrownBy(() -> serializer.serialize("plain")).isInstanceOf(SerializationException.class);
+    }
+
+    @Test
+    void jsonModeNeitherWritesNorReadsBinary() {
+        CodecRedisSerializer serializer = serializer(CodecMode.JSON, new SimpleMeterRegistry());
+        byte[] binary = new BinaryValueCodec().encode(ids);
+
+        assertThat(serializer.serialize(ids)[0]).isNotEqualTo(BinaryValueCodec.MAGIC);
+        assertThat(serializer.deserialize(binary)).isNull();
+    }
+
+    private static CodecRedisSerializer serializer(CodecMode mode, SimpleMeterRegistry meterRegistry) {
+        return new CodecRedisSerializer(mode, new BinaryValueCodec(), new JsonValueCodec(), meterRegistry);
+    }
+
+    private static double reads(SimpleMeterRegistry meterRegistry, String format) {
+        return meterRegistry.get("metacache.codec.reads").tag("format", format).counter().count();
+    }
+}
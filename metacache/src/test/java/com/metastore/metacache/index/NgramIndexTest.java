@@ -0,0 +1,126 @@
+package com.metastore.metacache.index;
+
+import com.metastore.metacache.model.Metadata;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NgramIndexTest {
+
+    @Test
+    void matchesSubstringsOfAnyFieldIgnoringCase() {
+        NgramIndex index = new NgramIndex(0.25);
+        Metadata bond = metadata("Treasury Bond", "Bond", "US Treasury", "Low");
+        Metadata equity = metadata("Tech Equity", "Equity", "BlackRock", "High");
+        index.putAll(List.of(bond, equity));
+
+        assertThat(index.search("TREAS", 10)).containsExactly(bond);
+        assertThat(index.search("blackrock", 10)).containsExactly(equity);
+        assertThat(index.search("igh", 10)).containsExactly(equity);
+        assertThat(index.search("missing", 10)).isEmpty();
+    }
+
+    @Test
+    void requiresEveryTrigramOfTheKeyword() {
+        NgramIndex index = new NgramIndex(0.25);
+        Metadata abc = metadata("abcxyz", "t", "i", "r");
+        Metadata bcd = metadata("xbcdex", "t", "i", "r");
+        index.putAll(List.of(abc, bcd));
+
+        assertThat(index.search("abcd", 10)).isEmpty();
+        assertThat(index.search("bcd", 10)).containsExactly(bcd);
+    }
+
+    @Test
+    void scansForKeywordsShorterThanATrigram() {
+        NgramIndex index = new NgramIndex(0.25);
+        Metadata bond = metadata("Bond A", "Bond", "Issuer", "Low");
+        Metadata equity = metadata("Equity B", "Equity", "Issuer", "High");
+        index.putAll(List.of(bond, equity));
+
+        assertThat(index.search("lo", 10)).containsExactly(bond);
+        assertThat(index.search("", 10)).hasSize(2);
+    }
+
+    @Test
+    void ranksExactThenPartialNameMatchesFirstAndKeepsTheBestUpToLimit() {
+        NgramIndex index = new NgramIndex(0.25);
+        Metadata issuerMatch = metadata("Other", "Bond", "Alpha Capital", "Low");
+        Metadata partial = metadata("Alpha Fund", "Bond", "Issuer", "Low");
+        Metadata exact = metadata("alpha", "Bond", "Issuer", "Low");
+        index.putAll(List.of(issuerMatch, partial, exact));
+
+        assertThat(index.search("Alpha", 10)).containsExactly(exact, partial, issuerMatch);
+        assertThat(index.search("Alpha", 2)).containsExactly(exact, partial);
+        assertThat(index.search("Alpha", 0)).isEmpty();
+    }
+
+    @Test
+    void putReplacesThePreviousVersionAndRemoveDropsIt() {
+        NgramIndex index = new NgramIndex(0.25);
+        Metadata original = metadata("Old Name", "Bond", "Issuer", "Low");
+        index.put(original);
+        Metadata renamed = metadata("New Name", "Bond", "Issuer", "Low");
+        renamed.setId(original.getId());
+        index.put(renamed);
+
+        assertThat(index.search("old", 10)).isEmpty();
+        assertThat(index.search("new", 10)).containsExactly(renamed);
+        assertThat(index.get(original.getId())).isEqualTo(renamed);
+        assertThat(index.size()).isEqualTo(1);
+
+        index.remove(original.getId());
+        assertThat(index.search("new", 10)).isEmpty();
+        assertThat(index.get(original.getId())).isNull();
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    void compactsOnceTombstonesDominateWithoutLosingLiveDocuments() {
+        NgramIndex index = new NgramIndex(0.25);
+        List<Metadata> documents = new ArrayList<>();
+        for (int i = 0; i < 4000; i++) {
+            documents.add(metadata("Asset " + i, i % 2 == 0 ? "Bond" : "Equity", "Issuer " + (i % 7), "Low"));
+        }
+        index.putAll(documents);
+        long loadedBytes = index.estimatedBytes();
+
+        for (int i = 0; i < 3500; i++) {
+            index.remove(documents.get(i).getId());
+        }
+
+        assertThat(index.size()).isEqualTo(500);
+        assertThat(index.estimatedBytes()).isLessThan(loadedBytes / 2);
+        assertThat(index.search("Asset 3999", 10)).containsExactly(documents.get(3999));
+        assertThat(index.search("Asset 12", 10)).isEmpty();
+        assertThat(index.search("bond", 1000)).hasSize(250);
+    }
+
+    @Test
+    void estimatedBytesFollowsWrites() {
+        NgramIndex index = new NgramIndex(0.25);
+        long empty = index.estimatedBytes();
+        Metadata metadata = metadata("Treasury Bond", "Bond", "US Treasury", "Low");
+
+        index.put(metadata);
+        long loaded = index.estimatedBytes();
+        index.remove(metadata.getId());
+
+        assertThat(loaded).isGreaterThan(empty);
+        assertThat(index.estimatedBytes()).isLessThan(loaded);
+    }
+
+    private static Metadata metadata(String name, String type, String issuer, String riskRating) {
+        Metadata metadata = new Metadata();
+        metadata.setId(UUID.randomUUID());
+        metadata.setName(name);
+        metadata.setType(type);
+        metadata.setIssuer(issuer);
+        metadata.setRiskRating(riskRating);
+        return metadata;
+    }
+}
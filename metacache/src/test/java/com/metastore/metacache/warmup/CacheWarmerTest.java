@@ -0,0 +1,123 @@
+package com.metastore.metacache.warmup;
+
+import com.metastore.metacache.cache.DictionaryReconciler;
+import com.metastore.metacache.cache.MetadataIdIndex;
+import com.metastore.metacache.cache.ReferenceCountedDictionary;
+import com.metastore.metacache.model.Metadata;
+import com.metastore.metacache.model.MetadataPage;
+import com.metastore.metacache.service.MetacacheService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CacheWarmerTest {
+    private static final int RANGES = 4;
+
+    private final MetacacheService metacacheService = mock(MetacacheService.class);
+    private final MetadataIdIndex idIndex = mock(MetadataIdIndex.class);
+    private final DictionaryReconciler dictionaryReconciler = mock(DictionaryReconciler.class);
+    private final ReferenceCountedDictionary dictionary = mock(ReferenceCountedDictionary.class);
+    private final RestTemplate restTemplate = mock(RestTemplate.class);
+    private final List<UUID[]> requestedRanges = Collections.synchronizedList(new ArrayList<>());
+    private CacheWarmer warmer;
+
+    @BeforeEach
+    void setUp() {
+        warmer = new CacheWarmer(metacacheService, idIndex, dictionaryReconciler, List.of(dictionary),
+                mock(SearchKeywordTracker.class), restTemplate, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(warmer, "enabled", true);
+        ReflectionTestUtils.setField(warmer, "parallelism", 2);
+        ReflectionTestUtils.setField(warmer, "ranges", RANGES);
+        ReflectionTestUtils.setField(warmer, "readyPercent", 90);
+        ReflectionTestUtils.setField(warmer, "maxWait", Duration.ofMinutes(5));
+        ReflectionTestUtils.setField(warmer, "metaclientBaseUrl", "http://metaclient");
+        when(restTemplate.getForObject("http://metaclient/metadata/count", Long.class)).thenReturn(12L);
+    }
+
+    @Test
+    void boundariesSplitTheUuidSpaceInUnsignedOrder() {
+        UUID previous = null;
+        for (int i = 1; i < RANGES; i++) {
+            UUID boundary = ReflectionTestUtils.invokeMethod(warmer, "boundary", i);
+            assertThat(boundary.getLeastSignificantBits()).isZero();
+            if (previous != null) {
+                assertThat(Long.compareUnsigned(previous.getMostSignificantBits(), boundary.getMostSignificantBits()))
+                        .isNegative();
+            }
+            previous = boundary;
+        }
+        assertThat(Long.toUnsignedString(previous.getMostSignificantBits()))
+                .isEqualTo(Long.toUnsignedString(Long.divideUnsigned(-1L, RANGES) * (RANGES - 1)));
+    }
+
+    @Test
+    void pagesEveryRangeBetweenAdjacentBoundaries() {
+        when(metacacheService.warmPage(any(), any())).thenAnswer(invocation -> {
+            UUID after = invocation.getArgument(0);
+            UUID before = invocation.getArgument(1);
+            requestedRanges.add(new UUID[]{after, before});
+            // Two pages per range: the first continues from a cursor inside the range.
+            boolean firstPage = after == null || after.getLeastSignificantBits() == 0;
+            UUID cursor = firstPage ? new UUID(after != null ? after.getMostSignificantBits() : 0, 1) : null;
+            return new MetadataPage(List.of(new Metadata(), new Metadata()).subList(0, firstPage ? 2 : 1), cursor);
+        });
+
+        ReflectionTestUtils.invokeMethod(warmer, "warm");
+
+        assertThat(warmer.getState()).isEqualTo(CacheWarmer.State.COMPLETE);
+        assertThat(warmer.getLoaded()).isEqualTo(12);
+        assertThat(warmer.isReady()).isTrue();
+        List<UUID[]> firstPages = requestedRanges.stream()
+                .filter(range -> range[0] == null || range[0].getLeastSignificantBits() == 0)
+                .toList();
+        assertThat(firstPages).hasSize(RANGES);
+        assertThat(firstPages).filteredOn(range -> range[0] == null).hasSize(1);
+        assertThat(firstPages).filteredOn(range -> range[1] == null).hasSize(1);
+        for (UUID[] range : firstPages) {
+            if (range[1] != null) {
+                // Each upper bound is the next range's lower bound.
+                assertThat(firstPages).anyMatch(other -> range[1].equals(other[0]));
+            }
+        }
+        verify(idIndex).markComplete();
+        verify(dictionaryReconciler).reconcile(dictionary);
+    }
+
+    @Test
+    void leavesTheIndexIncompleteWhenARangeFails() {
+        when(metacacheService.warmPage(any(), any())).thenThrow(new ResourceAccessException("down"));
+
+        ReflectionTestUtils.invokeMethod(warmer, "warm");
+
+        assertThat(warmer.getState()).isEqualTo(CacheWarmer.State.FAILED);
+        assertThat(warmer.isReady()).isTrue();
+        verify(idIndex, never()).markComplete();
+    }
+
+    @Test
+    void skipsAnAlreadyWarmCache() {
+        when(idIndex.isComplete()).thenReturn(true);
+
+        ReflectionTestUtils.invokeMethod(warmer, "warm");
+
+        assertThat(warmer.getState()).isEqualTo(CacheWarmer.State.SKIPPED);
+        assertThat(warmer.progressPercent()).isEqualTo(100);
+        verify(metacacheService, never()).warmPage(any(), any());
+    }
+}
@@ -0,0 +1,155 @@
+package com.metastore.metacache.writebehind;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.metastore.metacache.cache.DictionaryReconciler;
+import com.metastore.metacache.cache.InvalidationBus;
+import com.metastore.metacache.index.SearchIndex;
+import com.metastore.metacache.model.MetadataUpdate;
+import com.metastore.metacache.model.MetadataUpdateResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class WriteBehindFlusherTest {
+    private static final UUID FIRST = UUID.fromString("00000000-0000-0000-0000-000000000001");
+    private static final UUID SECOND = UUID.fromString("00000000-0000-0000-0000-000000000002");
+
+    private final WriteBehindQueue queue = mock(WriteBehindQueue.class);
+    private final RestTemplate restTemplate = mock(RestTemplate.class);
+    private final StringRedisTemplate stringRedisTemplate = mock(StringRedisTemplate.class);
+    private final InvalidationBus invalidationBus = mock(InvalidationBus.class);
+    private final SearchIndex searchIndex = mock(SearchIndex.class);
+    private final DictionaryReconciler dictionaryReconciler = mock(DictionaryReconciler.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private WriteBehindFlusher flusher;
+
+    @BeforeEach
+    void setUp() {
+        flusher = new WriteBehindFlusher(queue, restTemplate, stringRedisTemplate, invalidationBus, searchIndex,
+                dictionaryReconciler, new ObjectMapper(), meterRegistry);
+        ReflectionTestUtils.setField(flusher, "metaclientBaseUrl", "http://metaclient");
+        ReflectionTestUtils.setField(flusher, "batchSize", 500);
+        ReflectionTestUtils.setField(flusher, "maxBatchesPerFlush", 1);
+        when(queue.isEnabled()).thenReturn(true);
+        when(queue.acquireFlusherLease()).thenReturn(true);
+        when(queue.oldestAge()).thenReturn(Duration.ZERO);
+    }
+
+    @Test
+    void coalescesUpdatesPerIdKeepingTheLastValueOfEachField() {
+        when(queue.readBatch(anyInt())).thenReturn(List.of(
+                entry("1-0", FIRST, "{\"riskRating\":\"Low\",\"name\":\"First\"}"),
+                entry("1-1", SECOND, "{\"issuer\":\"Issuer\"}"),
+                entry("1-2", FIRST, "{\"riskRating\":\"High\"}")));
+        respond(new MetadataUpdateResult(FIRST, "UPDATED"), new MetadataUpdateResult(SECOND, "UPDATED"));
+
+        flusher.flush();
+
+        assertThat(postedBatch()).containsExactly(
+                new MetadataUpdate(FIRST, Map.of("riskRating", "High", "name", "First")),
+                new MetadataUpdate(SECOND, Map.of("issuer", "Issuer")));
+        verify(queue).reapply(List.of(
+                new WriteBehindQueue.FlushedUpdate("metadata:record:" + FIRST, "1-2",
+                        Map.of("riskRating", "High", "name", "First")),
+                new WriteBehindQueue.FlushedUpdate("metadata:record:" + SECOND, "1-1", Map.of("issuer", "Issuer"))));
+        verify(queue).acknowledge(List.of(RecordId.of("1-0"), RecordId.of("1-1"), RecordId.of("1-2")));
+        verify(invalidationBus).invalidateKey("metadata:" + FIRST);
+        verify(invalidationBus).invalidateKey("metadata:" + SECOND);
+        verify(dictionaryReconciler, never()).reconcileAll();
+        assertThat(meterRegistry.get("metacache.writebehind.flushed").counter().count()).isEqualTo(3);
+        assertThat(meterRegistry.get("metacache.writebehind.coalesced").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void dropsRejectedUpdatesFromTheCachesAndReconcilesDictionaries() {
+        when(queue.readBatch(anyInt())).thenReturn(List.of(
+                entry("1-0", FIRST, "{\"riskRating\":\"Low\"}"),
+                entry("1-1", SECOND, "{\"issuer\":\"Issuer\"}")));
+        respond(new MetadataUpdateResult(FIRST, "UPDATED"), new MetadataUpdateResult(SECOND, "NOT_FOUND"));
+
+        flusher.flush();
+
+        verify(queue).reapply(List.of(new WriteBehindQueue.FlushedUpdate("metadata:record:" + FIRST, "1-0",
+                Map.of("riskRating", "Low"))));
+        verify(stringRedisTemplate).delete(List.of("metadata:record:" + SECOND));
+        verify(searchIndex).refresh(List.of(SECOND));
+        verify(dictionaryReconciler).reconcileAll();
+        verify(queue).acknowledge(anyList());
+        assertThat(meterRegistry.get("metacache.writebehind.dropped").tag("status", "NOT_FOUND").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void skipsMalformedEntriesButAcknowledgesThem() {
+        when(queue.readBatch(anyInt())).thenReturn(List.of(
+                entry("1-0", FIRST, "not json"),
+                entry("1-1", SECOND, "{\"issuer\":\"Issuer\"}")));
+        respond(new MetadataUpdateResult(SECOND, "UPDATED"));
+
+        flusher.flush();
+
+        assertThat(postedBatch()).containsExactly(new MetadataUpdate(SECOND, Map.of("issuer", "Issuer")));
+        verify(queue).acknowledge(List.of(RecordId.of("1-0"), RecordId.of("1-1")));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void leavesTheBatchPendingWhenMetaclientFails() {
+        when(queue.readBatch(anyInt())).thenReturn(List.of(entry("1-0", FIRST, "{\"riskRating\":\"Low\"}")));
+        when(restTemplate.exchange(any(String.class), eq(HttpMethod.POST), any(HttpEntity.class),
+                any(ParameterizedTypeReference.class))).thenThrow(new ResourceAccessException("down"));
+
+        flusher.flush();
+
+        verify(queue, never()).acknowledge(anyList());
+        verify(queue, never()).reapply(anyList());
+        assertThat(meterRegistry.get("metacache.writebehind.failures").counter().count()).isEqualTo(1);
+    }
+
+    private static MapRecord<String, Object, Object> entry(String entryId, UUID id, String updates) {
+        return StreamRecords.<String, Object, Object>mapBacked(Map.of("id", id.toString(), "updates", updates))
+                .withStreamKey(WriteBehindQueue.STREAM_KEY)
+                .withId(RecordId.of(entryId));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void respond(MetadataUpdateResult... results) {
+        when(restTemplate.exchange(any(String.class), eq(HttpMethod.POST), any(HttpEntity.class),
+                any(ParameterizedTypeReference.class))).thenReturn(ResponseEntity.ok(List.of(results)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<MetadataUpdate> postedBatch() {
+        ArgumentCaptor<HttpEntity<List<MetadataUpdate>>> request = ArgumentCaptor.forClass(HttpEntity.class);
+        verify(restTemplate).exchange(eq("http://metaclient/metadata/batch/update"), eq(HttpMethod.POST),
+                request.capture(), any(ParameterizedTypeReference.class));
+        return request.getValue().getBody();
+    }
+}
@@ -0,0 +1,140 @@
+package com.metastore.metaclient.changes;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.metastore.metaclient.model.ChangeEvent;
+import com.metastore.metaclient.model.ChangeFeedPage;
+import com.metastore.metaclient.model.Metadata;
+import com.metastore.metaclient.repository.JdbcMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Transactional outbox behind the change feed. Writers append events inside the
+ * transaction of the change, so an event exists exactly when its change committed;
+ * sequence numbers come from the identity column and are read back in order by
+ * {@code GET /metadata/changes}. Sequences can become visible out of order when
+ * transactions commit out of order, which consumers must allow for.
+ */
+@Component
+public class ChangeOutbox {
+    private static final Logger logger = LoggerFactory.getLogger(ChangeOutbox.class);
+
+    private static final String INSERT_SQL = "INSERT INTO metadata_change "
+            + "(record_id, operation, source, old_value, new_value, created_at) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String READ_SQL = "SELECT id, record_id, operation, source, old_value, new_value, created_at "
+            + "FROM metadata_change WHERE id > ? ORDER BY id LIMIT ?";
+    private static final String BOUNDS_SQL = "SELECT MIN(id) AS oldest, MAX(id) AS latest FROM metadata_change";
+    // The newest row is kept so that the latest sequence survives a quiet period.
+    private static final String PURGE_SQL = "DELETE FROM metadata_change WHERE created_at < ? "
+            + "AND id < (SELECT MAX(id) FROM metadata_change)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final RowMapper<ChangeEvent> rowMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${metaclient.changes.enabled:true}")
+    private boolean enabled;
+
+    @Value("${metaclient.changes.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${metaclient.changes.retention:PT24H}")
+    private Duration retention;
+
+    public ChangeOutbox(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.rowMapper = (rs, rowNum) -> {
+            ChangeEvent event = new ChangeEvent(rs.getObject("record_id", UUID.class), rs.getString("operation"),
+                    fromJson(rs.getString("old_value")), fromJson(rs.getString("new_value")));
+            event.setSequence(rs.getLong("id"));
+            event.setSource(rs.getString("source"));
+            event.setCreatedAt(rs.getTimestamp("created_at").getTime());
+            return event;
+        };
+    }
+
+    /**
+     * Appends events to the caller's transaction, which must exist.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(String source, List<ChangeEvent> events) {
+        if (!enabled || events.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.from(Instant.now());
+        JdbcMetrics.timer(meterRegistry, "change-append").record(() ->
+                jdbcTemplate.batchUpdate(INSERT_SQL, events, batchSize, (statement, event) -> {
+                    statement.setObject(1, event.getId());
+                    statement.setString(2, event.getOperation());
+                    statement.setString(3, source);
+                    statement.setString(4, toJson(event.getBefore()));
+                    statement.setString(5, toJson(event.getAfter()));
+                    statement.setTimestamp(6, now);
+                }));
+    }
+
+    public ChangeFeedPage read(long after, int limit) {
+        return JdbcMetrics.timer(meterRegistry, "change-read").record(() -> {
+            List<ChangeEvent> changes = jdbcTemplate.query(READ_SQL, rowMapper, after, limit);
+            Map<String, Object> bounds = jdbcTemplate.queryForMap(BOUNDS_SQL);
+            return new ChangeFeedPage(changes, toLong(bounds.get("oldest")), toLong(bounds.get("latest")));
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${metaclient.changes.purge-interval:PT10M}")
+    public void purge() {
+        try {
+            int purged = jdbcTemplate.update(PURGE_SQL, Timestamp.from(Instant.now().minus(retention)));
+            if (purged > 0) {
+                logger.info("Purged {} change feed events older than {}", purged, retention);
+            }
+        } catch (Exception e) {
+            logger.error("Error purging change feed: {}", e.getMessage());
+        }
+    }
+
+    private String toJson(Metadata metadata) {
+        if (metadata == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(metadata);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize change event", e);
+        }
+    }
+
+    private Metadata fromJson(String json) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(json, Metadata.class);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to read change event", e);
+        }
+    }
+
+    private static Long toLong(Object value) {
+        return value != null ? ((Number) value).longValue() : null;
+    }
+}
@@ -0,0 +1,30 @@
+package com.metastore.metaclient.config;
+
+import com.metastore.metaclient.ingest.BulkInserter;
+import com.metastore.metaclient.ingest.JdbcBatchInserter;
+import com.metastore.metaclient.ingest.PostgresCopyInserter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+
+@Configuration
+public class IngestConfig {
+
+    @Bean
+    public BulkInserter bulkInserter(DataSource dataSource, JdbcTemplate jdbcTemplate,
+                                     @Value("${metaclient.ingest.copy-enabled:true}") boolean copyEnabled,
+                                     @Value("${metaclient.ingest.batch-size:1000}") int batchSize)
+            throws MetaDataAccessException {
+        String databaseProduct = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        if (copyEnabled && "PostgreSQL".equals(databaseProduct)) {
+            return new PostgresCopyInserter(jdbcTemplate);
+        }
+        return new JdbcBatchInserter(jdbcTemplate, batchSize);
+    }
+}
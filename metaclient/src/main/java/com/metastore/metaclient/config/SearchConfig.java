@@ -0,0 +1,28 @@
+package com.metastore.metaclient.config;
+
+import com.metastore.metaclient.search.JpqlSearchEngine;
+import com.metastore.metaclient.search.PostgresTrigramSearchEngine;
+import com.metastore.metaclient.search.SearchEngine;
+import jakarta.persistence.EntityManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+
+@Configuration
+public class SearchConfig {
+
+    @Bean
+    public SearchEngine searchEngine(DataSource dataSource, JdbcTemplate jdbcTemplate, EntityManager entityManager)
+            throws MetaDataAccessException {
+        String databaseProduct = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        if ("PostgreSQL".equals(databaseProduct)) {
+            return new PostgresTrigramSearchEngine(jdbcTemplate);
+        }
+        return new JpqlSearchEngine(entityManager);
+    }
+}
@@ -1,13 +1,26 @@
 package com.metastore.metaclient.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.metastore.metaclient.model.BulkDeleteRequest;
+import com.metastore.metaclient.model.BulkOperationResult;
+import com.metastore.metaclient.model.BulkUpdateRequest;
+import com.metastore.metaclient.model.ChangeFeedPage;
 import com.metastore.metaclient.model.Metadata;
+import com.metastore.metaclient.model.MetadataPage;
+import com.metastore.metaclient.model.MetadataUpdate;
+import com.metastore.metaclient.model.MetadataUpdateResult;
 import com.metastore.metaclient.service.MetaclientService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -16,16 +29,64 @@ import java.util.HashMap;
 @RestController
 @RequestMapping("/metadata")
 public class MetaclientController {
+    private static final byte[] NEWLINE = {'\n'};
+
     private final MetaclientService metaclientService;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public MetaclientController(MetaclientService metaclientService) {
+    public MetaclientController(MetaclientService metaclientService, ObjectMapper objectMapper) {
         this.metaclientService = metaclientService;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping("/all")
-    public ResponseEntity<List<Metadata>> getMetadataAll() {
-        return ResponseEntity.ok(metaclientService.getAllMetadata());
+    public ResponseEntity<StreamingResponseBody> getMetadataAll() {
+        StreamingResponseBody body = outputStream -> {
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream);
+            generator.writeStartArray();
+            metaclientService.streamAllMetadata(metadata -> {
+                try {
+                    generator.writeObject(metadata);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.writeEndArray();
+            generator.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamMetadata() {
+        StreamingResponseBody body = outputStream -> metaclientService.streamAllMetadata(metadata -> {
+            try {
+                outputStream.write(objectMapper.writeValueAsBytes(metadata));
+                outputStream.write(NEWLINE);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    @GetMapping("/page")
+    public ResponseEntity<MetadataPage> getMetadataPage(@RequestParam(required = false) UUID after,
+                                                        @RequestParam(required = false) UUID before,
+                                                        @RequestParam(defaultValue = "1000") int limit) {
+        return ResponseEntity.ok(metaclientService.getMetadataPage(after, before, limit));
+    }
+
+    @GetMapping("/ids")
+    public ResponseEntity<List<UUID>> getIdPage(@RequestParam(required = false) UUID after,
+                                                @RequestParam(defaultValue = "1000") int limit) {
+        return ResponseEntity.ok(metaclientService.getIdPage(after, limit));
+    }
+
+    @GetMapping("/count")
+    public ResponseEntity<Long> getCount() {
+        return ResponseEntity.ok(metaclientService.getCount());
     }
 
     @GetMapping("/{id}")
@@ -35,6 +96,28 @@ public class MetaclientController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<List<Metadata>> getMetadataBatch(@RequestBody List<UUID> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(metaclientService.getMetadataByIds(ids));
+    }
+
+    @PostMapping("/batch/update")
+    public ResponseEntity<List<MetadataUpdateResult>> updateMetadataBatch(@RequestBody List<MetadataUpdate> updates) {
+        try {
+            if (updates == null || updates.isEmpty()) {
+                return ResponseEntity.badRequest().build();
+            }
+            return ResponseEntity.ok(metaclientService.updateMetadataBatch(updates));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
     @PostMapping
     public ResponseEntity<List<Metadata>> createMetadata(@RequestBody List<Metadata> metadataList) {
         return ResponseEntity.ok(metaclientService.createMetadata(metadataList));
@@ -63,9 +146,48 @@ public class MetaclientController {
         return ResponseEntity.ok().build();
     }
 
+    @PostMapping("/bulk/update")
+    public ResponseEntity<BulkOperationResult> bulkUpdate(@RequestBody BulkUpdateRequest request) {
+        try {
+            return ResponseEntity.ok(new BulkOperationResult(
+                    metaclientService.bulkUpdate(request.getWhere(), request.getSet())));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    @PostMapping("/bulk/delete")
+    public ResponseEntity<BulkOperationResult> bulkDelete(@RequestBody BulkDeleteRequest request) {
+        try {
+            return ResponseEntity.ok(new BulkOperationResult(metaclientService.bulkDelete(request.getWhere())));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
     @GetMapping("/search")
-    public ResponseEntity<List<Metadata>> searchMetadata(@RequestParam String keyword) {
-        return ResponseEntity.ok(metaclientService.searchByKeyword(keyword));
+    public ResponseEntity<List<Metadata>> searchMetadata(@RequestParam String keyword,
+                                                         @RequestParam(defaultValue = "100") int limit,
+                                                         @RequestParam(defaultValue = "0") int offset) {
+        try {
+            return ResponseEntity.ok(metaclientService.searchByKeyword(keyword, limit, offset));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/changes")
+    public ResponseEntity<ChangeFeedPage> getChanges(@RequestParam(defaultValue = "0") long after,
+                                                     @RequestParam(defaultValue = "1000") int limit) {
+        try {
+            return ResponseEntity.ok(metaclientService.getChanges(after, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/types")
@@ -78,6 +200,16 @@ public class MetaclientController {
         return ResponseEntity.ok(metaclientService.getAllIssuers());
     }
 
+    @GetMapping("/types/counts")
+    public ResponseEntity<Map<String, Long>> getTypeCounts() {
+        return ResponseEntity.ok(metaclientService.getTypeCounts());
+    }
+
+    @GetMapping("/issuers/counts")
+    public ResponseEntity<Map<String, Long>> getIssuerCounts() {
+        return ResponseEntity.ok(metaclientService.getIssuerCounts());
+    }
+
     @PostMapping("/load/test-data/{count}")
     public ResponseEntity<Map<String, String>> loadTestData(@PathVariable int count) {
         metaclientService.loadTestData(count);
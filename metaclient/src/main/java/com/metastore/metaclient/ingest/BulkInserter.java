@@ -0,0 +1,16 @@
+package com.metastore.metaclient.ingest;
+
+import com.metastore.metaclient.model.Metadata;
+
+import java.util.List;
+
+/**
+ * Inserts metadata rows without going through the persistence context. IDs must already
+ * be assigned; the rows join the caller's transaction when one is active.
+ */
+public interface BulkInserter {
+
+    String INSERT_SQL = "INSERT INTO metadata (id, name, type, issuer, risk_rating) VALUES (?, ?, ?, ?, ?)";
+
+    void insert(List<Metadata> rows);
+}
@@ -0,0 +1,35 @@
+package com.metastore.metaclient.ingest;
+
+import com.metastore.metaclient.model.Metadata;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+/**
+ * Sends rows as JDBC batches of {@code batchSize} statements. On PostgreSQL the driver
+ * rewrites each batch into multi-row inserts when {@code reWriteBatchedInserts} is set.
+ */
+public class JdbcBatchInserter implements BulkInserter {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+
+    public JdbcBatchInserter(JdbcTemplate jdbcTemplate, int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void insert(List<Metadata> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows, batchSize, (statement, metadata) -> {
+            statement.setObject(1, metadata.getId());
+            statement.setString(2, metadata.getName());
+            statement.setString(3, metadata.getType());
+            statement.setString(4, metadata.getIssuer());
+            statement.setString(5, metadata.getRiskRating());
+        });
+    }
+}
@@ -0,0 +1,16 @@
+package com.metastore.metaclient.model;
+
+import lombok.Data;
+import java.util.Map;
+
+@Data
+public class BulkDeleteRequest {
+    private Map<String, String> where;
+
+    public BulkDeleteRequest() {
+    }
+
+    public BulkDeleteRequest(Map<String, String> where) {
+        this.where = where;
+    }
+}
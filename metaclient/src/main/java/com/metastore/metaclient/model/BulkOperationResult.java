@@ -0,0 +1,17 @@
+package com.metastore.metaclient.model;
+
+import lombok.Data;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+public class BulkOperationResult {
+    private List<UUID> ids;
+
+    public BulkOperationResult() {
+    }
+
+    public BulkOperationResult(List<UUID> ids) {
+        this.ids = ids;
+    }
+}
@@ -0,0 +1,18 @@
+package com.metastore.metaclient.model;
+
+import lombok.Data;
+import java.util.Map;
+
+@Data
+public class BulkUpdateRequest {
+    private Map<String, String> where;
+    private Map<String, String> set;
+
+    public BulkUpdateRequest() {
+    }
+
+    public BulkUpdateRequest(Map<String, String> where, Map<String, String> set) {
+        this.where = where;
+        this.set = set;
+    }
+}
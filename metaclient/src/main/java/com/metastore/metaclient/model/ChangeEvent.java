@@ -0,0 +1,31 @@
+package com.metastore.metaclient.model;
+
+import lombok.Data;
+import java.util.UUID;
+
+@Data
+public class ChangeEvent {
+    public static final String CREATE = "CREATE";
+    public static final String UPDATE = "UPDATE";
+    public static final String DELETE = "DELETE";
+    /** Many records were written at once; consumers rebuild instead of applying rows. */
+    public static final String RELOAD = "RELOAD";
+
+    private long sequence;
+    private UUID id;
+    private String operation;
+    private String source;
+    private Metadata before;
+    private Metadata after;
+    private long createdAt;
+
+    public ChangeEvent() {
+    }
+
+    public ChangeEvent(UUID id, String operation, Metadata before, Metadata after) {
+        this.id = id;
+        this.operation = operation;
+        this.before = before;
+        this.after = after;
+    }
+}
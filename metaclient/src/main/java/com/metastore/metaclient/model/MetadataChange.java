@@ -0,0 +1,33 @@
+package com.metastore.metaclient.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Outbox row for the change feed, written in the same transaction as the change it
+ * describes. Rows are inserted with JDBC by {@code ChangeOutbox}; the entity defines the table.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_metadata_change_created_at", columnList = "createdAt"))
+@Data
+public class MetadataChange {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private UUID recordId;
+    private String operation;
+    private String source;
+    @Column(length = 4000)
+    private String oldValue;
+    @Column(length = 4000)
+    private String newValue;
+    private Instant createdAt;
+}
@@ -0,0 +1,21 @@
+package com.metastore.metaclient.model;
+
+import lombok.Data;
+import java.util.UUID;
+
+/**
+ * Outcome of one update in a bulk update: UPDATED, NOT_FOUND or INVALID.
+ */
+@Data
+public class MetadataUpdateResult {
+    private UUID id;
+    private String status;
+
+    public MetadataUpdateResult() {
+    }
+
+    public MetadataUpdateResult(UUID id, String status) {
+        this.id = id;
+        this.status = status;
+    }
+}
@@ -0,0 +1,23 @@
+package com.metastore.metaclient.repository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Latency of SQL run through {@code JdbcTemplate}, which Spring Data's repository metrics
+ * do not see; JPA repository calls are timed as {@code spring.data.repository.invocations}.
+ */
+public final class JdbcMetrics {
+
+    private JdbcMetrics() {
+    }
+
+    public static Timer timer(MeterRegistry meterRegistry, String operation) {
+        return Timer.builder("metaclient.jdbc")
+                .description("Latency of JDBC statements by operation")
+                .tag("operation", operation)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
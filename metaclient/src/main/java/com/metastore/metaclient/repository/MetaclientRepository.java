@@ -1,27 +1,58 @@
 package com.metastore.metaclient.repository;
 
 import com.metastore.metaclient.model.Metadata;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface MetaclientRepository extends JpaRepository<Metadata, UUID> {
     
+    @Query("SELECT m FROM Metadata m ORDER BY m.id")
+    List<Metadata> findFirstPage(Pageable pageable);
+
+    @Query("SELECT m FROM Metadata m WHERE m.id > :after ORDER BY m.id")
+    List<Metadata> findPageAfter(@Param("after") UUID after, Pageable pageable);
+
+    @Query("SELECT m FROM Metadata m WHERE m.id < :before ORDER BY m.id")
+    List<Metadata> findFirstPageBefore(@Param("before") UUID before, Pageable pageable);
+
+    @Query("SELECT m FROM Metadata m WHERE m.id > :after AND m.id < :before ORDER BY m.id")
+    List<Metadata> findPageBetween(@Param("after") UUID after, @Param("before") UUID before, Pageable pageable);
+
+    @Query("SELECT m.id FROM Metadata m ORDER BY m.id")
+    List<UUID> findFirstIds(Pageable pageable);
+
+    @Query("SELECT m.id FROM Metadata m WHERE m.id > :after ORDER BY m.id")
+    List<UUID> findIdsAfter(@Param("after") UUID after, Pageable pageable);
+
+    @Query("SELECT m FROM Metadata m ORDER BY m.id")
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    Stream<Metadata> streamAll();
+
     @Query("SELECT DISTINCT m.type FROM Metadata m")
     List<String> findAllTypes();
     
     @Query("SELECT DISTINCT m.issuer FROM Metadata m")
     List<String> findAllIssuers();
-    
-    @Query("SELECT m FROM Metadata m WHERE " +
-           "LOWER(m.name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-           "LOWER(m.type) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-           "LOWER(m.issuer) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-           "LOWER(m.riskRating) LIKE LOWER(CONCAT('%', :keyword, '%'))")
-    List<Metadata> searchByKeyword(@Param("keyword") String keyword);
+
+    @Query("SELECT m.type, COUNT(m) FROM Metadata m WHERE m.type IS NOT NULL GROUP BY m.type")
+    List<Object[]> countByType();
+
+    @Query("SELECT m.issuer, COUNT(m) FROM Metadata m WHERE m.issuer IS NOT NULL GROUP BY m.issuer")
+    List<Object[]> countByIssuer();
 } 
\ No newline at end of file
@@ -0,0 +1,100 @@
+package com.metastore.metaclient.repository;
+
+import com.metastore.metaclient.model.Metadata;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Set-based updates and deletes over equality predicates, each one statement that returns
+ * the affected rows: {@code RETURNING id} on PostgreSQL, a data change delta table on H2.
+ */
+@Repository
+public class MetadataBulkRepository {
+
+    private static final Map<String, String> COLUMNS = Map.of(
+            "name", "name",
+            "type", "type",
+            "issuer", "issuer",
+            "riskRating", "risk_rating");
+
+    private static final String RETURNED_COLUMNS = "id, name, type, issuer, risk_rating";
+
+    private static final RowMapper<Metadata> ROW_MAPPER = (rs, rowNum) -> {
+        Metadata metadata = new Metadata();
+        metadata.setId(rs.getObject("id", UUID.class));
+        metadata.setName(rs.getString("name"));
+        metadata.setType(rs.getString("type"));
+        metadata.setIssuer(rs.getString("issuer"));
+        metadata.setRiskRating(rs.getString("risk_rating"));
+        return metadata;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean returningSupported;
+    private final MeterRegistry meterRegistry;
+
+    public MetadataBulkRepository(JdbcTemplate jdbcTemplate, DataSource dataSource, MeterRegistry meterRegistry)
+            throws MetaDataAccessException {
+        this.jdbcTemplate = jdbcTemplate;
+        this.meterRegistry = meterRegistry;
+        String databaseProduct = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        this.returningSupported = "PostgreSQL".equals(databaseProduct);
+    }
+
+    public static boolean isField(String field) {
+        return COLUMNS.containsKey(field);
+    }
+
+    public List<Metadata> update(Map<String, String> where, Map<String, String> set) {
+        List<Object> arguments = new ArrayList<>();
+        String assignments = bind(set, ", ", arguments);
+        String condition = bind(where, " AND ", arguments);
+        return affectedRows("bulk-update", "UPDATE metadata SET " + assignments + " WHERE " + condition, "FINAL", arguments);
+    }
+
+    public List<Metadata> delete(Map<String, String> where) {
+        List<Object> arguments = new ArrayList<>();
+        String condition = bind(where, " AND ", arguments);
+        return affectedRows("bulk-delete", "DELETE FROM metadata WHERE " + condition, "OLD", arguments);
+    }
+
+    /**
+     * Runs the statement and returns the affected rows: new values for an update, old
+     * values for a delete.
+     */
+    private List<Metadata> affectedRows(String operation, String statement, String deltaTable, List<Object> arguments) {
+        String sql = returningSupported
+                ? statement + " RETURNING " + RETURNED_COLUMNS
+                : "SELECT " + RETURNED_COLUMNS + " FROM " + deltaTable + " TABLE (" + statement + ")";
+        return JdbcMetrics.timer(meterRegistry, operation).record(() -> jdbcTemplate.query(sql, ROW_MAPPER, arguments.toArray()));
+    }
+
+    /**
+     * Renders {@code column = ?} terms in a stable order so that equal shapes share one
+     * prepared statement.
+     */
+    private static String bind(Map<String, String> values, String separator, List<Object> arguments) {
+        StringBuilder sql = new StringBuilder();
+        for (Map.Entry<String, String> entry : new TreeMap<>(values).entrySet()) {
+            String column = COLUMNS.get(entry.getKey());
+            if (!sql.isEmpty()) {
+                sql.append(separator);
+            }
+            sql.append(column).append(" = ?");
+            arguments.add(entry.getValue());
+        }
+        return sql.toString();
+    }
+}
@@ -0,0 +1,36 @@
+package com.metastore.metaclient.search;
+
+import com.metastore.metaclient.model.Metadata;
+import jakarta.persistence.EntityManager;
+
+import java.util.List;
+
+/**
+ * Portable search used on databases without trigram indexes, such as the H2 profile.
+ */
+public class JpqlSearchEngine implements SearchEngine {
+
+    private static final String SEARCH_QUERY = "SELECT m FROM Metadata m WHERE "
+            + "LOWER(m.name) LIKE :pattern ESCAPE '\\' OR "
+            + "LOWER(m.type) LIKE :pattern ESCAPE '\\' OR "
+            + "LOWER(m.issuer) LIKE :pattern ESCAPE '\\' OR "
+            + "LOWER(m.riskRating) LIKE :pattern ESCAPE '\\' "
+            + "ORDER BY CASE WHEN LOWER(m.name) = :keyword THEN 0 "
+            + "WHEN LOWER(m.name) LIKE :pattern ESCAPE '\\' THEN 1 ELSE 2 END, m.id";
+
+    private final EntityManager entityManager;
+
+    public JpqlSearchEngine(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<Metadata> search(String keyword, int limit, int offset) {
+        return entityManager.createQuery(SEARCH_QUERY, Metadata.class)
+                .setParameter("pattern", SearchEngine.likePattern(keyword))
+                .setParameter("keyword", keyword.toLowerCase())
+                .setFirstResult(offset)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
@@ -0,0 +1,62 @@
+package com.metastore.metaclient.search;
+
+import com.metastore.metaclient.model.Metadata;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Serves substring search from a pg_trgm GIN index over one lower-cased expression that
+ * joins the searchable columns with a unit separator, so a match never spans two columns.
+ */
+public class PostgresTrigramSearchEngine implements SearchEngine {
+    private static final Logger logger = LoggerFactory.getLogger(PostgresTrigramSearchEngine.class);
+
+    static final String SEARCH_EXPRESSION = "lower(coalesce(name, '') || chr(31) || coalesce(type, '') || chr(31) "
+            + "|| coalesce(issuer, '') || chr(31) || coalesce(risk_rating, ''))";
+
+    private static final String SEARCH_SQL = "SELECT id, name, type, issuer, risk_rating FROM metadata "
+            + "WHERE " + SEARCH_EXPRESSION + " LIKE ? "
+            + "ORDER BY (lower(name) LIKE ?) DESC, similarity(" + SEARCH_EXPRESSION + ", ?) DESC, id "
+            + "LIMIT ? OFFSET ?";
+
+    static final RowMapper<Metadata> ROW_MAPPER = (rs, rowNum) -> {
+        Metadata metadata = new Metadata();
+        metadata.setId(rs.getObject("id", UUID.class));
+        metadata.setName(rs.getString("name"));
+        metadata.setType(rs.getString("type"));
+        metadata.setIssuer(rs.getString("issuer"));
+        metadata.setRiskRating(rs.getString("risk_rating"));
+        return metadata;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PostgresTrigramSearchEngine(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndex() {
+        try {
+            jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_metadata_search_trgm ON metadata "
+                    + "USING gin ((" + SEARCH_EXPRESSION + ") gin_trgm_ops)");
+            logger.info("Trigram search index is in place");
+        } catch (Exception e) {
+            logger.error("Error creating trigram search index, searches will scan the table: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public List<Metadata> search(String keyword, int limit, int offset) {
+        String pattern = SearchEngine.likePattern(keyword);
+        return jdbcTemplate.query(SEARCH_SQL, ROW_MAPPER, pattern, pattern, keyword.toLowerCase(), limit, offset);
+    }
+}
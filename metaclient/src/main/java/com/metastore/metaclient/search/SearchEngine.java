@@ -0,0 +1,22 @@
+package com.metastore.metaclient.search;
+
+import com.metastore.metaclient.model.Metadata;
+
+import java.util.List;
+
+/**
+ * Case-insensitive substring search over name, type, issuer and riskRating, ranked so
+ * that name matches come first.
+ */
+public interface SearchEngine {
+
+    List<Metadata> search(String keyword, int limit, int offset);
+
+    static String likePattern(String keyword) {
+        String escaped = keyword.toLowerCase()
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+}
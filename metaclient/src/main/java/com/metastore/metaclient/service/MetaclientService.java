@@ -1,46 +1,185 @@
 package com.metastore.metaclient.service;
 
+import com.metastore.metaclient.changes.ChangeOutbox;
+import com.metastore.metaclient.ingest.BulkInserter;
+import com.metastore.metaclient.model.ChangeEvent;
+import com.metastore.metaclient.model.ChangeFeedPage;
 import com.metastore.metaclient.model.Metadata;
+import com.metastore.metaclient.model.MetadataPage;
+import com.metastore.metaclient.model.MetadataUpdate;
+import com.metastore.metaclient.model.MetadataUpdateResult;
 import com.metastore.metaclient.repository.MetaclientRepository;
+import com.metastore.metaclient.repository.MetadataBulkRepository;
+import com.metastore.metaclient.search.SearchEngine;
 import com.metastore.metaclient.util.DataLoader;
+import jakarta.persistence.EntityManager;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class MetaclientService {
     private static final int BATCH_SIZE = 100;
+    /** Change feed sources; {@code batch} is metacache's write-behind flush. */
+    public static final String SOURCE_API = "api";
+    public static final String SOURCE_BATCH = "batch";
+    public static final String SOURCE_BULK = "bulk";
+    public static final String SOURCE_LOAD = "load";
     
     private final MetaclientRepository metaclientRepository;
+    private final EntityManager entityManager;
+    private final SearchEngine searchEngine;
+    private final BulkInserter bulkInserter;
+    private final MetadataBulkRepository metadataBulkRepository;
+    private final ChangeOutbox changeOutbox;
+    private final TransactionTemplate readOnlyTransaction;
     @Autowired
     private DataLoader dataLoader;
 
+    @Value("${metaclient.page.max-size:1000}")
+    private int maxPageSize;
+
+    @Value("${metaclient.search.max-limit:1000}")
+    private int maxSearchLimit;
+
+    @Value("${metaclient.batch.max-update-size:5000}")
+    private int maxBatchUpdateSize;
+
+    @Value("${metaclient.changes.max-limit:1000}")
+    private int maxChangeLimit;
+
     @Autowired
-    public MetaclientService(MetaclientRepository metaclientRepository) {
+    public MetaclientService(MetaclientRepository metaclientRepository, EntityManager entityManager,
+                             SearchEngine searchEngine, BulkInserter bulkInserter,
+                             MetadataBulkRepository metadataBulkRepository, ChangeOutbox changeOutbox,
+                             PlatformTransactionManager transactionManager) {
         this.metaclientRepository = metaclientRepository;
+        this.entityManager = entityManager;
+        this.searchEngine = searchEngine;
+        this.bulkInserter = bulkInserter;
+        this.metadataBulkRepository = metadataBulkRepository;
+        this.changeOutbox = changeOutbox;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
     }
 
-    public List<Metadata> getAllMetadata() {
-        return metaclientRepository.findAll();
+    /**
+     * One keyset page of IDs strictly between {@code after} and {@code before}, either of
+     * which may be null. The upper bound lets callers page disjoint ID ranges in parallel.
+     */
+    public MetadataPage getMetadataPage(UUID after, UUID before, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, maxPageSize));
+        Pageable pageable = PageRequest.of(0, pageSize);
+        List<Metadata> items;
+        if (before == null) {
+            items = after == null
+                    ? metaclientRepository.findFirstPage(pageable)
+                    : metaclientRepository.findPageAfter(after, pageable);
+        } else {
+            items = after == null
+                    ? metaclientRepository.findFirstPageBefore(before, pageable)
+                    : metaclientRepository.findPageBetween(after, before, pageable);
+        }
+        UUID nextCursor = items.size() == pageSize ? items.get(items.size() - 1).getId() : null;
+        return new MetadataPage(items, nextCursor);
+    }
+
+    /**
+     * One keyset page of IDs alone, for callers that only need to know which records exist.
+     */
+    public List<UUID> getIdPage(UUID after, int limit) {
+        Pageable pageable = PageRequest.of(0, Math.max(1, Math.min(limit, maxPageSize)));
+        return after == null
+                ? metaclientRepository.findFirstIds(pageable)
+                : metaclientRepository.findIdsAfter(after, pageable);
+    }
+
+    public void streamAllMetadata(Consumer<Metadata> consumer) {
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<Metadata> stream = metaclientRepository.streamAll()) {
+                stream.forEach(metadata -> {
+                    consumer.accept(metadata);
+                    entityManager.detach(metadata);
+                });
+            }
+        });
     }
 
     public Optional<Metadata> getMetadataById(UUID id) {
         return metaclientRepository.findById(id);
     }
 
+    public List<Metadata> getMetadataByIds(List<UUID> ids) {
+        return metaclientRepository.findAllById(ids);
+    }
+
+    /**
+     * Applies many partial updates in one transaction, loading all affected rows with a
+     * single query. Updates to the same ID are applied in list order.
+     */
+    @Transactional
+    public List<MetadataUpdateResult> updateMetadataBatch(List<MetadataUpdate> updates) {
+        if (updates.size() > maxBatchUpdateSize) {
+            throw new IllegalArgumentException("Batch size " + updates.size() + " exceeds limit of " + maxBatchUpdateSize);
+        }
+        Map<UUID, Metadata> existing = new HashMap<>();
+        Map<UUID, Metadata> before = new LinkedHashMap<>();
+        metaclientRepository.findAllById(updates.stream().map(MetadataUpdate::getId).distinct().toList())
+                .forEach(metadata -> existing.put(metadata.getId(), metadata));
+
+        List<MetadataUpdateResult> results = new ArrayList<>(updates.size());
+        for (MetadataUpdate update : updates) {
+            Metadata metadata = existing.get(update.getId());
+            if (metadata == null) {
+                results.add(new MetadataUpdateResult(update.getId(), "NOT_FOUND"));
+            } else {
+                Metadata snapshot = copyOf(metadata);
+                if (update.getUpdates() == null || !applyUpdates(metadata, update.getUpdates())) {
+                    results.add(new MetadataUpdateResult(update.getId(), "INVALID"));
+                } else {
+                    before.putIfAbsent(update.getId(), snapshot);
+                    results.add(new MetadataUpdateResult(update.getId(), "UPDATED"));
+                }
+            }
+        }
+        metaclientRepository.saveAll(existing.values());
+        List<ChangeEvent> events = new ArrayList<>(before.size());
+        before.forEach((id, previous) -> events.add(
+                new ChangeEvent(id, ChangeEvent.UPDATE, previous, copyOf(existing.get(id)))));
+        changeOutbox.append(SOURCE_BATCH, events);
+        return results;
+    }
+
+    /**
+     * Assigns IDs here rather than in Hibernate so that the rows can be inserted in bulk.
+     */
     @Transactional
     public List<Metadata> createMetadata(List<Metadata> metadataList) {
         metadataList.forEach(metadata -> {
-            metadata.setId(null);
+            metadata.setId(UUID.randomUUID());
         });
-        return metaclientRepository.saveAll(metadataList);
+        bulkInserter.insert(metadataList);
+        changeOutbox.append(SOURCE_API, metadataList.stream()
+                .map(metadata -> new ChangeEvent(metadata.getId(), ChangeEvent.CREATE, null, copyOf(metadata)))
+                .toList());
+        return metadataList;
     }
 
     @Transactional
@@ -52,8 +191,102 @@ public class MetaclientService {
         Metadata existingMetadata = metaclientRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Metadata with ID " + id + " not found"));
         
-        boolean hasUpdates = false;
+        Metadata before = copyOf(existingMetadata);
+        boolean hasUpdates = applyUpdates(existingMetadata, updates);
         
+        if (!hasUpdates) {
+            throw new IllegalArgumentException("No valid updates provided");
+        }
+        
+        Metadata saved = metaclientRepository.save(existingMetadata);
+        changeOutbox.append(SOURCE_API, List.of(new ChangeEvent(id, ChangeEvent.UPDATE, before, copyOf(saved))));
+        return saved;
+    }
+
+    @Transactional
+    public void deleteMetadata(UUID id) {
+        metaclientRepository.findById(id).ifPresent(existing -> {
+            Metadata before = copyOf(existing);
+            metaclientRepository.delete(existing);
+            changeOutbox.append(SOURCE_API, List.of(new ChangeEvent(id, ChangeEvent.DELETE, before, null)));
+        });
+    }
+
+    /**
+     * Sets the given fields on every record matching all {@code where} values.
+     *
+     * @return the IDs of the updated records
+     */
+    @Transactional
+    public List<UUID> bulkUpdate(Map<String, String> where, Map<String, String> set) {
+        requirePredicate(where);
+        if (set == null || set.isEmpty()) {
+            throw new IllegalArgumentException("No valid updates provided");
+        }
+        set.forEach((field, value) -> {
+            requireField(field);
+            if (value == null || value.trim().isEmpty()) {
+                throw new IllegalArgumentException("Update value for " + field + " cannot be empty");
+            }
+        });
+        List<Metadata> updated = metadataBulkRepository.update(where, set);
+        // The statement returns only the new rows; consumers treat a missing before-image as unknown.
+        changeOutbox.append(SOURCE_BULK, updated.stream()
+                .map(metadata -> new ChangeEvent(metadata.getId(), ChangeEvent.UPDATE, null, metadata))
+                .toList());
+        return updated.stream().map(Metadata::getId).toList();
+    }
+
+    /**
+     * @return the IDs of the deleted records
+     */
+    @Transactional
+    public List<UUID> bulkDelete(Map<String, String> where) {
+        requirePredicate(where);
+        List<Metadata> deleted = metadataBulkRepository.delete(where);
+        changeOutbox.append(SOURCE_BULK, deleted.stream()
+                .map(metadata -> new ChangeEvent(metadata.getId(), ChangeEvent.DELETE, metadata, null))
+                .toList());
+        return deleted.stream().map(Metadata::getId).toList();
+    }
+
+    public List<Metadata> searchByKeyword(String keyword, int limit, int offset) {
+        if (keyword == null || keyword.isBlank()) {
+            throw new IllegalArgumentException("Search keyword cannot be empty");
+        }
+        if (limit < 1 || offset < 0) {
+            throw new IllegalArgumentException("Search limit must be positive and offset non-negative");
+        }
+        return searchEngine.search(keyword, Math.min(limit, maxSearchLimit), offset);
+    }
+
+    public long getCount() {
+        return metaclientRepository.count();
+    }
+
+    public List<String> getAllTypes() {
+        return metaclientRepository.findAllTypes();
+    }
+
+    public List<String> getAllIssuers() {
+        return metaclientRepository.findAllIssuers();
+    }
+
+    public Map<String, Long> getTypeCounts() {
+        return toCounts(metaclientRepository.countByType());
+    }
+
+    public Map<String, Long> getIssuerCounts() {
+        return toCounts(metaclientRepository.countByIssuer());
+    }
+
+    public void loadTestData(int count) {
+        dataLoader.loadTestData(count);
+    }
+
+    private static boolean applyUpdates(Metadata existingMetadata, Map<String, Object> updates) {
+        boolean hasUpdates = false;
+
         if (updates.containsKey("name")) {
             String name = (String) updates.get("name");
             if (name != null && !name.trim().isEmpty()) {
@@ -83,32 +316,49 @@ public class MetaclientService {
             }
         }
         
-        if (!hasUpdates) {
-            throw new IllegalArgumentException("No valid updates provided");
-        }
-        
-        return metaclientRepository.save(existingMetadata);
+        return hasUpdates;
     }
 
-    @Transactional
-    public void deleteMetadata(UUID id) {
-        metaclientRepository.deleteById(id);
+    public ChangeFeedPage getChanges(long after, int limit) {
+        if (limit < 1 || after < 0) {
+            throw new IllegalArgumentException("Change feed limit must be positive and cursor non-negative");
+        }
+        return changeOutbox.read(after, Math.min(limit, maxChangeLimit));
     }
 
-    public List<Metadata> searchByKeyword(String keyword) {
-        return metaclientRepository.searchByKeyword(keyword);
+    private static Metadata copyOf(Metadata metadata) {
+        Metadata copy = new Metadata();
+        copy.setId(metadata.getId());
+        copy.setName(metadata.getName());
+        copy.setType(metadata.getType());
+        copy.setIssuer(metadata.getIssuer());
+        copy.setRiskRating(metadata.getRiskRating());
+        return copy;
     }
 
-    public List<String> getAllTypes() {
-        return metaclientRepository.findAllTypes();
+    private static void requirePredicate(Map<String, String> where) {
+        if (where == null || where.isEmpty()) {
+            throw new IllegalArgumentException("Bulk operations require at least one where condition");
+        }
+        where.forEach((field, value) -> {
+            requireField(field);
+            if (value == null) {
+                throw new IllegalArgumentException("Condition value for " + field + " cannot be null");
+            }
+        });
     }
 
-    public List<String> getAllIssuers() {
-        return metaclientRepository.findAllIssuers();
+    private static void requireField(String field) {
+        if (!MetadataBulkRepository.isField(field)) {
+            throw new IllegalArgumentException("Unknown field: " + field);
+        }
     }
 
-    @Transactional
-    public void loadTestData(int count) {
-        dataLoader.loadTestData(count);
+    private static Map<String, Long> toCounts(List<Object[]> rows) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (Object[] row : rows) {
+            counts.put((String) row[0], ((Number) row[1]).longValue());
+        }
+        return counts;
     }
-} 
\ No newline at end of file
+}
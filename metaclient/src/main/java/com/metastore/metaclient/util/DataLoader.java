@@ -1,31 +1,63 @@
 package com.metastore.metaclient.util;
 
+import com.metastore.metaclient.changes.ChangeOutbox;
+import com.metastore.metaclient.ingest.BulkInserter;
+import com.metastore.metaclient.model.ChangeEvent;
 import com.metastore.metaclient.model.Metadata;
-import com.metastore.metaclient.repository.MetaclientRepository;
+import com.metastore.metaclient.service.MetaclientService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Generates test records in chunks on {@code metaclient.ingest.parallelism} threads; each
+ * thread inserts its chunk through the {@link BulkInserter} in its own transaction, so a
+ * failed load keeps the chunks committed before it.
+ */
 @Component
 @Profile("!prod")
 public class DataLoader implements CommandLineRunner {
 
     private static final Logger logger = LoggerFactory.getLogger(DataLoader.class);
-    private static final int DEFAULT_TEST_DATA_COUNT = 10;
-    private static final int BATCH_SIZE = 100;
-    
-    private final MetaclientRepository metaclientRepository;
+    private static final String[] TYPES = {"Bond", "Stock", "ETF", "Mutual Fund", "Derivative"};
+    private static final String[] ISSUERS = {"JP Morgan", "Goldman Sachs", "Morgan Stanley", "BlackRock", "Vanguard"};
+    private static final String[] RISK_RATINGS = {"Low", "Medium", "High", "Very High"};
+
+    private final BulkInserter bulkInserter;
+    private final ChangeOutbox changeOutbox;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${metaclient.ingest.chunk-size:10000}")
+    private int chunkSize;
+
+    @Value("${metaclient.ingest.parallelism:0}")
+    private int parallelism;
+
+    @Value("${metaclient.ingest.progress-interval:PT5S}")
+    private Duration progressInterval;
 
     @Autowired
-    public DataLoader(MetaclientRepository metaclientRepository) {
-        this.metaclientRepository = metaclientRepository;
+    public DataLoader(BulkInserter bulkInserter, ChangeOutbox changeOutbox, PlatformTransactionManager transactionManager) {
+        this.bulkInserter = bulkInserter;
+        this.changeOutbox = changeOutbox;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     @Override
@@ -34,34 +66,72 @@ public class DataLoader implements CommandLineRunner {
     }
 
     public void loadTestData(int count) {
-        logger.info("Loading {} test metadata records", count);
-        
-        String[] types = {"Bond", "Stock", "ETF", "Mutual Fund", "Derivative"};
-        String[] issuers = {"JP Morgan", "Goldman Sachs", "Morgan Stanley", "BlackRock", "Vanguard"};
-        String[] riskRatings = {"Low", "Medium", "High", "Very High"};
-        
-        List<Metadata> batch = new ArrayList<>(BATCH_SIZE);
-        
-        for (int i = 0; i < count; i++) {
-            Metadata metadata = new Metadata();
-            metadata.setName("Test Asset " + i);
-            metadata.setType(types[ThreadLocalRandom.current().nextInt(types.length)]);
-            metadata.setIssuer(issuers[ThreadLocalRandom.current().nextInt(issuers.length)]);
-            metadata.setRiskRating(riskRatings[ThreadLocalRandom.current().nextInt(riskRatings.length)]);
-            
-            batch.add(metadata);
-            
-            if (batch.size() >= BATCH_SIZE) {
-                metaclientRepository.saveAll(batch);
-                batch.clear();
-                logger.info("Processed {} records", i + 1);
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        logger.info("Loading {} test metadata records on {} threads using {}", count, threads,
+                bulkInserter.getClass().getSimpleName());
+
+        long start = System.nanoTime();
+        AtomicLong loaded = new AtomicLong();
+        AtomicLong lastReport = new AtomicLong(start);
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            List<Future<?>> chunks = new ArrayList<>();
+            for (int from = 0; from < count; from += chunkSize) {
+                int first = from;
+                int size = Math.min(chunkSize, count - from);
+                chunks.add(executor.submit(() -> {
+                    List<Metadata> rows = new ArrayList<>(size);
+                    for (int i = first; i < first + size; i++) {
+                        rows.add(testRecord(i));
+                    }
+                    transactionTemplate.executeWithoutResult(status -> {
+                        bulkInserter.insert(rows);
+                        // One event per chunk rather than per row; consumers rebuild on it.
+                        changeOutbox.append(MetaclientService.SOURCE_LOAD,
+                                List.of(new ChangeEvent(null, ChangeEvent.RELOAD, null, null)));
+                    });
+                    reportProgress(loaded.addAndGet(size), count, start, lastReport);
+                }));
+            }
+            try {
+                for (Future<?> chunk : chunks) {
+                    chunk.get();
+                }
+            } catch (ExecutionException e) {
+                chunks.forEach(chunk -> chunk.cancel(true));
+                throw new RuntimeException("Failed to load test data after " + loaded.get() + " records", e.getCause());
+            } catch (InterruptedException e) {
+                chunks.forEach(chunk -> chunk.cancel(true));
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted loading test data after " + loaded.get() + " records", e);
             }
         }
-        
-        if (!batch.isEmpty()) {
-            metaclientRepository.saveAll(batch);
+
+        long elapsedNanos = System.nanoTime() - start;
+        logger.info("Loaded {} test metadata records into the database in {} ms ({} rows/s)",
+                count, elapsedNanos / 1_000_000, rowsPerSecond(count, elapsedNanos));
+    }
+
+    static Metadata testRecord(int index) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Metadata metadata = new Metadata();
+        metadata.setId(UUID.randomUUID());
+        metadata.setName("Test Asset " + index);
+        metadata.setType(TYPES[random.nextInt(TYPES.length)]);
+        metadata.setIssuer(ISSUERS[random.nextInt(ISSUERS.length)]);
+        metadata.setRiskRating(RISK_RATINGS[random.nextInt(RISK_RATINGS.length)]);
+        return metadata;
+    }
+
+    static long rowsPerSecond(long rows, long elapsedNanos) {
+        return elapsedNanos > 0 ? rows * 1_000_000_000L / elapsedNanos : rows;
+    }
+
+    private void reportProgress(long done, int count, long start, AtomicLong lastReport) {
+        long now = System.nanoTime();
+        long last = lastReport.get();
+        if (done < count && now - last >= progressInterval.toNanos() && lastReport.compareAndSet(last, now)) {
+            logger.info("Loaded {}/{} records ({}%), {} rows/s", done, count, done * 100 / count,
+                    rowsPerSecond(done, now - start));
         }
-        
-        logger.info("Loaded {} test metadata records into the database", count);
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,108 @@
+package com.metastore.metaclient.util;
+
+import com.metastore.metaclient.ingest.BulkInserter;
+import com.metastore.metaclient.ingest.JdbcBatchInserter;
+import com.metastore.metaclient.ingest.PostgresCopyInserter;
+import com.metastore.metaclient.model.Metadata;
+import com.metastore.metaclient.repository.MetaclientRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Compares insert throughput of the JPA {@code saveAll} path, JDBC batches and, on
+ * PostgreSQL, COPY, then times a parallel {@link DataLoader} run. Run with
+ * {@code --spring.profiles.active=ingest-benchmark} (add {@code h2} for the in-memory
+ * database); results are logged as rows per second for each path.
+ */
+@Component
+@Profile("ingest-benchmark")
+public class IngestBenchmark implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(IngestBenchmark.class);
+
+    private final MetaclientRepository metaclientRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+    private final DataLoader dataLoader;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${metaclient.ingest-benchmark.rows:100000}")
+    private int rows;
+
+    @Value("${metaclient.ingest-benchmark.jpa-rows:10000}")
+    private int jpaRows;
+
+    @Value("${metaclient.ingest.chunk-size:10000}")
+    private int chunkSize;
+
+    @Value("${metaclient.ingest.batch-size:1000}")
+    private int batchSize;
+
+    public IngestBenchmark(MetaclientRepository metaclientRepository, JdbcTemplate jdbcTemplate, DataSource dataSource,
+                           DataLoader dataLoader, PlatformTransactionManager transactionManager) {
+        this.metaclientRepository = metaclientRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSource = dataSource;
+        this.dataLoader = dataLoader;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void run(String... args) throws Exception {
+        // Hibernate generates IDs for the JPA path, as it did before bulk ingest.
+        report("jpa-saveAll", jpaRows, chunk -> {
+            chunk.forEach(metadata -> metadata.setId(null));
+            metaclientRepository.saveAll(chunk);
+        });
+
+        Map<String, BulkInserter> inserters = new LinkedHashMap<>();
+        inserters.put("jdbc-batch", new JdbcBatchInserter(jdbcTemplate, batchSize));
+        String databaseProduct = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        if ("PostgreSQL".equals(databaseProduct)) {
+            inserters.put("copy", new PostgresCopyInserter(jdbcTemplate));
+        }
+        inserters.forEach((name, inserter) -> report(name, rows, inserter::insert));
+
+        long start = System.nanoTime();
+        dataLoader.loadTestData(rows);
+        logger.info("path=data-loader rows={} rowsPerSecond={}", rows,
+                DataLoader.rowsPerSecond(rows, System.nanoTime() - start));
+        logger.info("Ingest benchmark complete");
+    }
+
+    /**
+     * Times single-threaded inserts of pre-generated rows, one transaction per chunk.
+     */
+    private void report(String path, int count, Consumer<List<Metadata>> insert) {
+        List<List<Metadata>> chunks = new ArrayList<>();
+        for (int from = 0; from < count; from += chunkSize) {
+            List<Metadata> chunk = new ArrayList<>();
+            for (int i = from; i < Math.min(count, from + chunkSize); i++) {
+                chunk.add(DataLoader.testRecord(i));
+            }
+            chunks.add(chunk);
+        }
+        long start = System.nanoTime();
+        for (List<Metadata> chunk : chunks) {
+            transactionTemplate.executeWithoutResult(status -> insert.accept(chunk));
+        }
+        logger.info("path={} rows={} rowsPerSecond={}", path, count,
+                DataLoader.rowsPerSecond(count, System.nanoTime() - start));
+    }
+}
@@ -0,0 +1,82 @@
+package com.metastore.metaclient.util;
+
+import com.metastore.metaclient.repository.MetaclientRepository;
+import com.metastore.metaclient.search.SearchEngine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntFunction;
+
+/**
+ * Measures cold-search latency of the active {@link SearchEngine} as the table grows.
+ * Run with {@code --spring.profiles.active=search-benchmark} (add {@code h2} for the
+ * in-memory database); results are logged as one line per table size and query kind.
+ */
+@Component
+@Profile("search-benchmark")
+public class SearchBenchmark implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchBenchmark.class);
+    private static final List<String> BROAD_KEYWORDS = List.of("bond", "vanguard", "high", "fund", "sachs");
+
+    private final MetaclientRepository metaclientRepository;
+    private final DataLoader dataLoader;
+    private final SearchEngine searchEngine;
+
+    @Value("${metaclient.search-benchmark.sizes:10000,100000,1000000}")
+    private int[] sizes;
+
+    @Value("${metaclient.search-benchmark.queries:50}")
+    private int queries;
+
+    @Value("${metaclient.search-benchmark.limit:100}")
+    private int limit;
+
+    public SearchBenchmark(MetaclientRepository metaclientRepository, DataLoader dataLoader, SearchEngine searchEngine) {
+        this.metaclientRepository = metaclientRepository;
+        this.dataLoader = dataLoader;
+        this.searchEngine = searchEngine;
+    }
+
+    @Override
+    public void run(String... args) {
+        logger.info("Search benchmark using {}", searchEngine.getClass().getSimpleName());
+        for (int size : sizes) {
+            long existing = metaclientRepository.count();
+            if (existing < size) {
+                dataLoader.loadTestData((int) (size - existing));
+            }
+            // Selective keywords are distinct per query so that no query benefits from the previous one's pages.
+            report(size, "selective", i -> "asset " + ThreadLocalRandom.current().nextInt(size));
+            report(size, "broad", i -> BROAD_KEYWORDS.get(i % BROAD_KEYWORDS.size()));
+            report(size, "no-match", i -> "zq" + Integer.toString(ThreadLocalRandom.current().nextInt(1 << 20), 36));
+        }
+        logger.info("Search benchmark complete");
+    }
+
+    private void report(int size, String kind, IntFunction<String> keywords) {
+        long[] latencies = new long[queries];
+        for (int i = 0; i < queries; i++) {
+            String keyword = keywords.apply(i);
+            long start = System.nanoTime();
+            searchEngine.search(keyword, limit, 0);
+            latencies[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(latencies);
+        logger.info("rows={} kind={} p50={}ms p95={}ms max={}ms", size, kind,
+                millis(latencies[queries / 2]),
+                millis(latencies[Math.min(queries - 1, (int) Math.ceil(queries * 0.95) - 1)]),
+                millis(latencies[queries - 1]));
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.2f", nanos / 1_000_000.0);
+    }
+}
@@ -0,0 +1,116 @@
+package com.metastore.metaclient.repository;
+
+import com.metastore.metaclient.model.Metadata;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MetadataBulkRepositoryTest {
+    private JdbcTemplate jdbcTemplate;
+    private MetadataBulkRepository repository;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        DataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:bulk-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE metadata (id UUID PRIMARY KEY, name VARCHAR(255), type VARCHAR(255), "
+                + "issuer VARCHAR(255), risk_rating VARCHAR(255))");
+        repository = new MetadataBulkRepository(jdbcTemplate, dataSource, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void updateReturnsTheNewValuesOfMatchingRowsOnly() {
+        UUID bond = insert("Bond A", "Bond", "BlackRock", "Low");
+        UUID otherIssuer = insert("Bond B", "Bond", "Vanguard", "Low");
+        UUID equity = insert("Equity A", "Equity", "BlackRock", "Low");
+
+        List<Metadata> updated = repository.update(Map.of("type", "Bond", "issuer", "BlackRock"),
+                Map.of("riskRating", "High"));
+
+        assertThat(updated).extracting(Metadata::getId).containsExactly(bond);
+        assertThat(updated.get(0).getRiskRating()).isEqualTo("High");
+        assertThat(updated.get(0).getName()).isEqualTo("Bond A");
+        assertThat(riskRating(bond)).isEqualTo("High");
+        assertThat(riskRating(otherIssuer)).isEqualTo("Low");
+        assertThat(riskRating(equity)).isEqualTo("Low");
+    }
+
+    @Test
+    void deleteReturnsTheOldValuesOfDeletedRows() {
+        UUID first = insert("Bond A", "Bond", "BlackRock", "Low");
+        UUID second = insert("Bond B", "Bond", "BlackRock", "High");
+        UUID kept = insert("Equity A", "Equity", "BlackRock", "Low");
+
+        List<Metadata> deleted = repository.delete(Map.of("type", "Bond"));
+
+        assertThat(deleted).extracting(Metadata::getId).containsExactlyInAnyOrder(first, second);
+        assertThat(deleted).extracting(Metadata::getRiskRating).containsExactlyInAnyOrder("Low", "High");
+        assertThat(jdbcTemplate.queryForList("SELECT id FROM metadata", UUID.class)).containsExactly(kept);
+    }
+
+    @Test
+    void returnsNothingWhenNoRowMatches() {
+        insert("Bond A", "Bond", "BlackRock", "Low");
+
+        assertThat(repository.update(Map.of("issuer", "Nobody"), Map.of("name", "Renamed"))).isEmpty();
+        assertThat(repository.delete(Map.of("issuer", "Nobody"))).isEmpty();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void usesReturningOnPostgresWithColumnsInAStableOrder() throws Exception {
+        DataSource dataSource = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        DatabaseMetaData databaseMetaData = mock(DatabaseMetaData.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.getMetaData()).thenReturn(databaseMetaData);
+        when(databaseMetaData.getDatabaseProductName()).thenReturn("PostgreSQL");
+        JdbcTemplate postgres = mock(JdbcTemplate.class);
+        MetadataBulkRepository postgresRepository = new MetadataBulkRepository(postgres, dataSource, new SimpleMeterRegistry());
+
+        postgresRepository.update(Map.of("type", "Bond", "issuer", "BlackRock"), Map.of("riskRating", "High", "name", "X"));
+        postgresRepository.delete(Map.of("riskRating", "Low"));
+
+        verify(postgres).query(eq("UPDATE metadata SET name = ?, risk_rating = ? WHERE issuer = ? AND type = ? "
+                        + "RETURNING id, name, type, issuer, risk_rating"),
+                any(RowMapper.class), eq("X"), eq("High"), eq("BlackRock"), eq("Bond"));
+        verify(postgres).query(eq("DELETE FROM metadata WHERE risk_rating = ? RETURNING id, name, type, issuer, risk_rating"),
+                any(RowMapper.class), eq("Low"));
+    }
+
+    @Test
+    void recognizesOnlyMappedFields() {
+        assertThat(MetadataBulkRepository.isField("riskRating")).isTrue();
+        assertThat(MetadataBulkRepository.isField("risk_rating")).isFalse();
+        assertThat(MetadataBulkRepository.isField("id")).isFalse();
+    }
+
+    private UUID insert(String name, String type, String issuer, String riskRating) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO metadata (id, name, type, issuer, risk_rating) VALUES (?, ?, ?, ?, ?)",
+                id, name, type, issuer, riskRating);
+        return id;
+    }
+
+    private String riskRating(UUID id) {
+        return jdbcTemplate.queryForObject("SELECT risk_rating FROM metadata WHERE id = ?", String.class, id);
+    }
+}